@@ -0,0 +1,31 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A CommandHandler that's executed off the main thread, for heavy commands (e.g. bulk lookups or exports).
+ * execute() runs on the Executor from getExecutor(); its result is reported back on the main thread.
+ * On Spigot, implement AsyncSubcommand instead.
+ */
+public interface AsyncCommandHandler extends CommandHandler {
+    /**
+     * The maximum amount of asynchronous commands a sender can have running when this one is started, including this one.
+     * Default behavior: Returns 1, so a sender has to wait for their last command to finish.
+     * @param sender The sender running the command
+     * @return The maximum amount of running commands, or 0 for no limit
+     */
+    default int getMaxRunning(@NotNull Sender sender) {
+        return 1;
+    }
+
+    /**
+     * Where the command is executed.
+     * Default behavior: Returns SubcommandCore.getAsyncExecutor().
+     * @return The Executor to run the command on
+     */
+    @NotNull default Executor getExecutor() {
+        return SubcommandCore.getAsyncExecutor();
+    }
+}
@@ -0,0 +1,158 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.options.FlagTable;
+import xyz.dragin.subcommandlib.task.CommandTask;
+import xyz.dragin.subcommandlib.task.TaskHandle;
+import xyz.dragin.subcommandlib.util.ArgumentView;
+import xyz.dragin.subcommandlib.util.ParsedArguments;
+import xyz.dragin.subcommandlib.util.TabUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Everything about a single execution or tab completion of a command.
+ * Anything that depends on the sender (e.g. getAllowedFlags(), which may check permissions) is only found the first time it's needed,
+ * then remembered for the rest of the execution or tab completion.
+ * A CommandContext isn't thread safe, but can be handed to another thread once it's done being used on the current one.
+ */
+public final class CommandContext {
+    private final Sender sender;
+    private final CommandNode node;
+    private final ArgumentView rawArguments;
+    private final Platform platform;
+    private List<CommandFlag> allowedFlags;
+    private FlagTable flagTable;
+    private ParsedArguments arguments;
+    private List<CommandFlag> suggestedFlags;
+
+    /**
+     * Initialization constructor, for running a command without a Dispatcher (e.g. in a batch)
+     * @param sender The sender running or typing the command
+     * @param node The compiled node of the command
+     * @param rawArguments The arguments after the command's name
+     * @param platform The platform the command runs on
+     */
+    public CommandContext(@NotNull Sender sender, @NotNull CommandNode node, @NotNull ArgumentView rawArguments, @NotNull Platform platform) {
+        this.sender = sender;
+        this.node = node;
+        this.rawArguments = rawArguments;
+        this.platform = platform;
+    }
+
+    /**
+     * Creates a context for another execution of the same command by the same sender, reusing the allowed flags of this one
+     * @param group An earlier context for the command and sender
+     * @param rawArguments The arguments after the command's name
+     */
+    public CommandContext(@NotNull CommandContext group, @NotNull ArgumentView rawArguments) {
+        this(group.sender, group.node, rawArguments, group.platform);
+        this.allowedFlags = group.getAllowedFlags();
+        this.flagTable = group.getFlagTable();
+    }
+
+    /**
+     * Gets the sender running or typing the command; on Spigot, BukkitSender.unwrap() gets their CommandSender
+     * @return The sender
+     */
+    @NotNull public Sender getSender() { return sender; }
+
+    /**
+     * Gets the compiled node of the command being run or tab completed
+     * @return The node
+     */
+    @NotNull public CommandNode getNode() { return node; }
+
+    /**
+     * Gets the command being run or tab completed
+     * @return The command, e.g. a Subcommand on Spigot
+     */
+    @NotNull public CommandHandler getSubcommand() { return node.getSubcommand(); }
+
+    /**
+     * Gets the names leading to the command from the base command, separated by spaces (e.g. "region set flag")
+     * @return The path to the command
+     */
+    @NotNull public String getPath() { return node.getPath(); }
+
+    /**
+     * Gets the children of the command, as compiled from getChildren()
+     * @return An unmodifiable List of child nodes
+     */
+    @NotNull public List<CommandNode> getChildren() { return node.getChildren(); }
+
+    /**
+     * Gets the arguments after the command's name before parsing.
+     * When tab completing, this doesn't include the argument being typed.
+     * @return The unparsed arguments
+     */
+    @NotNull public ArgumentView getRawArguments() { return rawArguments; }
+
+    /**
+     * Runs things on the main thread, e.g. from an {@link AsyncCommandHandler}. Runs them right away if already on the main thread.
+     * @return An Executor for the main thread
+     */
+    @NotNull public Executor getMainThread() { return platform.getMainThread(); }
+
+    /**
+     * Gets the platform the command runs on, e.g. for scheduling
+     * @return The platform
+     */
+    @NotNull public Platform getPlatform() { return platform; }
+
+    /**
+     * Runs a CommandTask a few steps each tick on the main thread, telling the sender about its progress and about any error.
+     * The platform ticks the task; without a server, it runs to the end right away.
+     * @param task The task
+     * @return A handle for cancelling the task or waiting for it to finish
+     * @see Dispatcher#runTask(Sender, CommandTask, Platform)
+     */
+    @NotNull public TaskHandle runTask(@NotNull CommandTask task) {
+        return Dispatcher.runTask(sender, task, platform);
+    }
+
+    /**
+     * Gets the result of the command's getAllowedFlags() for the sender, which is only called once
+     * @return The allowed flags
+     */
+    @NotNull public List<CommandFlag> getAllowedFlags() {
+        if (allowedFlags == null) allowedFlags = getSubcommand().getAllowedFlags(sender);
+        return allowedFlags;
+    }
+
+    /**
+     * Gets the allowed flags as a lookup table for parsing
+     * @return The table of allowed flags
+     */
+    @NotNull public FlagTable getFlagTable() {
+        if (flagTable == null) flagTable = FlagTable.of(getAllowedFlags());
+        return flagTable;
+    }
+
+    /**
+     * Gets the parsed arguments, which are only parsed once
+     * @return All String (required), CommandFlag and CommandOption (optional) arguments
+     */
+    @NotNull public ParsedArguments getArguments() {
+        if (arguments == null) arguments = TabUtils.parse(rawArguments, getFlagTable());
+        return arguments;
+    }
+
+    /**
+     * Gets the flags to suggest in the tab completion, which are only found once.
+     * If the command doesn't override any suggestFlags method, these are the allowed flags that haven't been used yet.
+     * @return The suggested flags
+     */
+    @NotNull public List<CommandFlag> getSuggestedFlags() {
+        if (suggestedFlags == null) {
+            if (node.inheritsSuggestFlags()) {
+                suggestedFlags = new ArrayList<>(getAllowedFlags());
+                suggestedFlags.removeAll(getArguments().getFlags());
+            } else suggestedFlags = getSubcommand().suggestFlags(this);
+        }
+        return suggestedFlags;
+    }
+}
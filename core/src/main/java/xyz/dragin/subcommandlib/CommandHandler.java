@@ -0,0 +1,98 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A command or subcommand as the core module sees it, without depending on any platform. Can have any amount of children.
+ * On Spigot, implement Subcommand instead, which is a CommandHandler taking Bukkit's CommandSender;
+ * elsewhere (e.g. on a proxy), implement this directly and adapt your senders to {@link Sender}.
+ */
+public interface CommandHandler {
+    /**
+     * The all-lowercase name of the command for registry and identification; what's typed by the player
+     * @return The name of the command
+     */
+    @NotNull String getName();
+
+    /**
+     * Aliases for the command, pointing to the same instance.
+     * Default behavior: Returns an empty list.
+     * @return A list of alias names
+     */
+    @NotNull default List<String> getAliases() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * The commands that are children to this one.
+     * Default behavior: Returns an empty List.
+     * @return All child commands
+     */
+    @NotNull default List<? extends CommandHandler> getChildren() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * What should be done when the command is executed.
+     * Default behavior: Returns false, telling the sender it can't be run without a subcommand.
+     * @param context The sender, parsed arguments and everything else about this execution
+     * @return False if and only if the command cannot be run by itself (parent to subcommands only)
+     */
+    default boolean execute(@NotNull CommandContext context) {
+        return false;
+    }
+
+    /**
+     * A tab completion for anything BUT the option given to a flag (those are handled within the flags themselves).
+     * Adds onto any flags provided by getAllowedFlags(). You won't need to filter based on what's typed; that's handled automatically.
+     * Default behavior: No tab completion options other than flags.
+     * @param context The sender, parsed arguments and everything else about this tab completion
+     * @param typed The final incomplete argument to tab complete
+     * @return A list of tab suggestions based on previous arguments
+     */
+    @NotNull default List<String> tabComplete(@NotNull CommandContext context, String typed) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * A tab completion that's found off the main thread, for suggestions that take a while to look up (e.g. from a database).
+     * It's called on {@link SubcommandCore#getAsyncExecutor()}, and is cancelled (interrupting it if it's still running) if the same sender
+     * asks for a different tab completion first, or if it takes longer than the timeout of {@link SubcommandCore#getAsyncCompleter()}.
+     * Default behavior: An already finished future with no suggestions.
+     * @param context The sender, parsed arguments and everything else about this tab completion
+     * @param typed The final incomplete argument to tab complete
+     * @return A future list of tab suggestions based on previous arguments
+     */
+    @NotNull default CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandContext context, String typed) {
+        return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+
+    /**
+     * CommandFlags that can be used and will be treated as flags (all other strings are literal).
+     * Default behavior: Returns an empty List.
+     * @param sender The sender typing the command
+     * @return List of valid CommandFlags
+     */
+    @NotNull default List<CommandFlag> getAllowedFlags(@NotNull Sender sender) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * A list of flags that are suggested in the tab completion based on the current entry.
+     * Default behavior: suggests any flags from getAllowedFlags() that haven't been used.
+     * If no suggestFlags method is overridden, the context finds the unused flags itself without calling this.
+     * @param context The sender, parsed arguments and everything else about this tab completion
+     * @return List of flags to suggest in the tab completion
+     */
+    @NotNull default List<CommandFlag> suggestFlags(@NotNull CommandContext context) {
+        List<CommandFlag> output = new ArrayList<>(context.getAllowedFlags());
+        output.removeAll(context.getArguments().getFlags());
+        return output;
+    }
+}
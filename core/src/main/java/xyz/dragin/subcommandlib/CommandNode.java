@@ -0,0 +1,298 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.options.FlagTable;
+import xyz.dragin.subcommandlib.util.TypoIndex;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A compiled node of a command tree, used for dispatching executions and tab completions.
+ * Each node keeps a lookup table of its children's names and aliases, so finding a child is a single hash probe.
+ * Children are compiled the first time they're needed (trees can be infinitely recursive) and cached until invalidated.
+ * A {@link LazyCommandHandler} child is only created once its node is dispatched into; listing or finding it only uses its name and aliases.
+ * "Did you mean" hints for mistyped names and flags are found with a {@link TypoIndex}, also built once and cached.
+ */
+public final class CommandNode {
+    private static final ClassValue<Boolean> INHERITS_SUGGEST_FLAGS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return inherits(type, "suggestFlags");
+        }
+    };
+    private static final ClassValue<Boolean> INHERITS_TAB_COMPLETE_ASYNC = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return inherits(type, "tabCompleteAsync");
+        }
+    };
+    private static final int MAX_SIMILAR = 3;
+    private static final int MAX_CACHED_TYPOS = 64;
+    private static final int MAX_FLAG_INDEXES = 16;
+
+    private final CommandHandler subcommand;
+    private final CommandNode parent;
+    private final String path;
+    private final int depth;
+    private volatile Children children;
+    // FlagTable doesn't override equals(), so tables are found by identity, and ones nobody keeps are forgotten
+    private final Map<FlagTable, TypoIndex> flagTypos = new WeakHashMap<>();
+
+    private CommandNode(@NotNull CommandHandler subcommand, @Nullable CommandNode parent) {
+        this.subcommand = subcommand;
+        this.parent = parent;
+        this.path = parent == null ? subcommand.getName() : parent.path + " " + subcommand.getName();
+        this.depth = parent == null ? 0 : parent.depth + 1;
+    }
+
+    /**
+     * Compiles the base of a command tree
+     * @param subcommand The base command
+     * @return The compiled base node, with its children already compiled
+     */
+    @NotNull public static CommandNode compile(@NotNull CommandHandler subcommand) {
+        CommandNode node = new CommandNode(subcommand, null);
+        node.children();
+        return node;
+    }
+
+    /**
+     * Gets the command this node was compiled from, creating it if it's a {@link LazyCommandHandler} that hasn't been yet
+     * @return The command, e.g. a Subcommand on Spigot
+     */
+    @NotNull public CommandHandler getSubcommand() {
+        return subcommand instanceof LazyCommandHandler ? ((LazyCommandHandler) subcommand).get() : subcommand;
+    }
+
+    /**
+     * Whether this node was compiled from a command, without creating it if it's lazy and hasn't been created yet
+     * @param other The command, or the LazyCommandHandler it was given as
+     * @return True if it's this node's command
+     */
+    public boolean isFor(@NotNull CommandHandler other) {
+        return subcommand == other || subcommand instanceof LazyCommandHandler && ((LazyCommandHandler) subcommand).getIfLoaded() == other;
+    }
+
+    /**
+     * Gets the parent node
+     * @return The parent node, or null if this is a base command
+     */
+    @Nullable public CommandNode getParent() { return parent; }
+
+    /**
+     * Gets the names leading to this node from the base command, separated by spaces (e.g. "region set flag")
+     * @return The path to this node
+     */
+    @NotNull public String getPath() { return path; }
+
+    /**
+     * Gets how many levels below the base command this node is, which is also how many arguments were used to reach it
+     * @return 0 for a base command, 1 for its children, and so on
+     */
+    public int getDepth() { return depth; }
+
+    /**
+     * Finds a child by its name or one of its aliases
+     * @param name The name or alias of the child
+     * @return The child node, or null if there is none with that name
+     */
+    @Nullable public CommandNode getChild(@NotNull String name) {
+        return children().byName.get(name);
+    }
+
+    /**
+     * Finds a descendant by following names or aliases from this node
+     * @param path The names or aliases of each child to follow
+     * @return The descendant node, or null if the path doesn't exist
+     */
+    @Nullable public CommandNode find(@NotNull String... path) {
+        CommandNode node = this;
+        for (int i = 0; i < path.length && node != null; i++) node = node.getChild(path[i]);
+        return node;
+    }
+
+    /**
+     * Whether this node has any children
+     * @return True if there is at least one child
+     */
+    public boolean hasChildren() {
+        return !children().nodes.isEmpty();
+    }
+
+    /**
+     * Gets the compiled children of this node in the order given by getChildren()
+     * @return An unmodifiable List of child nodes
+     */
+    @NotNull public List<CommandNode> getChildren() {
+        return children().nodes;
+    }
+
+    /**
+     * Gets every child name followed by its aliases, in the order given by getChildren()
+     * @return An unmodifiable List of names and aliases
+     */
+    @NotNull public List<String> getChildNames() {
+        return children().names;
+    }
+
+    /**
+     * Finds the names or aliases of children similar to a mistyped one, e.g. for "did you mean" hints.
+     * Results are remembered for the most recent mistakes until the children are invalidated.
+     * @param typed The mistyped name
+     * @return Up to 3 similar names, closest first
+     */
+    @NotNull public List<String> getSimilarChildNames(@NotNull String typed) {
+        return children().similar(typed);
+    }
+
+    /**
+     * Finds allowed flags similar to a mistyped one, e.g. for "did you mean" hints.
+     * An index is built once for each FlagTable, so senders allowed different flags each keep theirs;
+     * return the flags of a table kept in a constant from getAllowedFlags() and its index is never built again.
+     * @param flags The allowed flags
+     * @param typed The mistyped flag, including dashes
+     * @return Up to 3 similar flags including dashes, closest first
+     */
+    @NotNull public List<String> getSimilarFlags(@NotNull FlagTable flags, @NotNull String typed) {
+        if (flags.isEmpty()) return new ArrayList<>(0);
+        TypoIndex index;
+        synchronized (flagTypos) {
+            index = flagTypos.get(flags);
+        }
+        if (index == null) {
+            List<String> written = new ArrayList<>(flags.getFlags().size());
+            for (CommandFlag flag : flags.getFlags()) written.add(flag.toString());
+            index = TypoIndex.of(written);
+            synchronized (flagTypos) {
+                // Tables built for every command would otherwise pile up until collected
+                if (flagTypos.size() >= MAX_FLAG_INDEXES) flagTypos.clear();
+                flagTypos.put(flags, index);
+            }
+        }
+        return index.find(typed, MAX_SIMILAR);
+    }
+
+    /**
+     * Discards the compiled children of this node, so getChildren() is called again on the next lookup.
+     * Use this when the children of a command change at runtime. Everything below this node is recompiled as well,
+     * and remembered tab suggestions for this node are forgotten.
+     */
+    public void invalidate() {
+        children = null;
+        SubcommandCore.getCompletionCache().invalidate(this);
+    }
+
+    /**
+     * Whether the command uses the default behavior of suggestFlags(), so it can be found without calling getAllowedFlags() again
+     * @return True if no suggestFlags method is overridden
+     */
+    boolean inheritsSuggestFlags() {
+        return INHERITS_SUGGEST_FLAGS.get(getSubcommand().getClass());
+    }
+
+    /**
+     * Whether the command uses the default behavior of tabCompleteAsync(), so there are never any asynchronous suggestions to wait for
+     * @return True if no tabCompleteAsync method is overridden
+     */
+    boolean inheritsTabCompleteAsync() {
+        return INHERITS_TAB_COMPLETE_ASYNC.get(getSubcommand().getClass());
+    }
+
+    /**
+     * Whether every overload of a method is the default from one of SubcommandLib's interfaces (e.g. CommandHandler or Subcommand),
+     * which only bridge to each other, so none of them were overridden
+     */
+    private static boolean inherits(Class<?> type, String name) {
+        for (Method method : type.getMethods()) {
+            if (!method.getName().equals(name)) continue;
+            Class<?> declaring = method.getDeclaringClass();
+            if (!declaring.isInterface() || !packageOf(declaring).equals(packageOf(CommandHandler.class))) return false;
+        }
+        return true;
+    }
+
+    private static String packageOf(Class<?> type) {
+        return type.getName().substring(0, type.getName().lastIndexOf('.'));
+    }
+
+    private Children children() {
+        Children compiled = children;
+        if (compiled != null && !(subcommand instanceof LazyCommandHandler)) return compiled;
+        // Compiled again if a softly remembered command was discarded and created again, so the old children aren't kept
+        CommandHandler instance = getSubcommand();
+        int loads = subcommand instanceof LazyCommandHandler ? ((LazyCommandHandler) subcommand).getLoads() : 0;
+        if (compiled == null || compiled.loads != loads) {
+            compiled = new Children(this, instance, loads);
+            children = compiled;
+        }
+        return compiled;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandNode{" + path + "}";
+    }
+
+    private static final class Children {
+        private final Map<String, CommandNode> byName;
+        private final List<CommandNode> nodes;
+        private final List<String> names;
+        private volatile TypoIndex typos;
+        private final Map<String, List<String>> similar = new LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                return size() > MAX_CACHED_TYPOS;
+            }
+        };
+
+        private final int loads;
+
+        private Children(CommandNode parent, CommandHandler instance, int loads) {
+            this.loads = loads;
+            List<? extends CommandHandler> subcommands = instance.getChildren();
+            Map<String, CommandNode> byName = new HashMap<>();
+            List<CommandNode> nodes = new ArrayList<>(subcommands.size());
+            List<String> names = new ArrayList<>();
+            for (CommandHandler subcommand : subcommands) {
+                CommandNode node = new CommandNode(subcommand, parent);
+                nodes.add(node);
+                names.add(subcommand.getName());
+                byName.putIfAbsent(subcommand.getName(), node);
+                for (String alias : subcommand.getAliases()) {
+                    names.add(alias);
+                    byName.putIfAbsent(alias, node);
+                }
+            }
+            this.byName = byName;
+            this.nodes = Collections.unmodifiableList(nodes);
+            this.names = Collections.unmodifiableList(names);
+        }
+
+        private List<String> similar(String typed) {
+            synchronized (similar) {
+                List<String> cached = similar.get(typed);
+                if (cached != null) return cached;
+            }
+            // Only indexed once something is mistyped
+            TypoIndex index = typos;
+            if (index == null) {
+                index = TypoIndex.of(names);
+                typos = index;
+            }
+            List<String> found = Collections.unmodifiableList(index.find(typed, MAX_SIMILAR));
+            synchronized (similar) {
+                similar.put(typed, found);
+            }
+            return found;
+        }
+    }
+}
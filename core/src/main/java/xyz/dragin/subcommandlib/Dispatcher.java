@@ -0,0 +1,382 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.completion.Candidates;
+import xyz.dragin.subcommandlib.completion.CompletionCache;
+import xyz.dragin.subcommandlib.completion.CompletionThrottle;
+import xyz.dragin.subcommandlib.metrics.MetricsRegistry;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.options.CommandOption;
+import xyz.dragin.subcommandlib.options.FlagTable;
+import xyz.dragin.subcommandlib.recording.TrafficRecord;
+import xyz.dragin.subcommandlib.recording.TrafficRecorder;
+import xyz.dragin.subcommandlib.task.CommandTask;
+import xyz.dragin.subcommandlib.task.TaskHandle;
+import xyz.dragin.subcommandlib.util.ArgumentTokenizer;
+import xyz.dragin.subcommandlib.util.ArgumentView;
+import xyz.dragin.subcommandlib.util.AsyncUtils;
+import xyz.dragin.subcommandlib.util.ConcurrencyLimiter;
+import xyz.dragin.subcommandlib.util.ParsedArguments;
+import xyz.dragin.subcommandlib.util.TabUtils;
+import xyz.dragin.subcommandlib.util.TokenizedArguments;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Runs executions and tab completions through the compiled tree of a base command.
+ * Registered commands go through one of these, but it doesn't need a server, a plugin or a PluginCommand,
+ * so a tree can also be tested or benchmarked on a plain JVM with any {@link Sender}, run on a proxy, or given commands that arrive some other way.
+ */
+public final class Dispatcher {
+    // Legacy formatting codes, which Bukkit and proxies all understand
+    private static final String RED = "\u00a7c";
+    private static final String YELLOW = "\u00a7e";
+    private static final String GRAY = "\u00a77";
+    private static final String CANNOT_RUN = RED + "This command cannot be run by itself.";
+
+    private final CommandNode root;
+    private final Platform platform;
+
+    /**
+     * Initialization constructor for dispatching outside a server.
+     * Anything meant for the main thread runs right away on the thread it's given from.
+     * @param command The base command, which is compiled here
+     */
+    public Dispatcher(@NotNull CommandHandler command) {
+        this(CommandNode.compile(command), Platform.headless());
+    }
+
+    /**
+     * Initialization constructor
+     * @param root The compiled base command
+     * @param platform Runs things on the main thread (e.g. the results of an {@link AsyncCommandHandler}) and logs errors
+     */
+    public Dispatcher(@NotNull CommandNode root, @NotNull Platform platform) {
+        this.root = root;
+        this.platform = platform;
+    }
+
+    /**
+     * Gets the compiled base command commands are dispatched into
+     * @return The base node
+     */
+    @NotNull public CommandNode getRoot() { return root; }
+
+    /**
+     * Follows the names of nested subcommands at the start of the arguments
+     * @param args All arguments
+     * @param end The index after the last argument that can be a subcommand name
+     * @return The deepest node reached; its depth is the amount of arguments used
+     */
+    private CommandNode resolve(List<String> args, int end) {
+        CommandNode node = root;
+        for (int i = 0; i < end; i++) {
+            CommandNode child = node.getChild(args.get(i));
+            if (child == null) break;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Executes the base command or one of its subcommands, telling the sender if it can't be run by itself
+     * @param sender The sender running the command
+     * @param args The arguments after the base command's name, as split by spaces
+     * @return False if the command cannot be run by itself; always true for an {@link AsyncCommandHandler}, which finishes later
+     */
+    public boolean execute(@NotNull Sender sender, @NotNull String... args) {
+        // Quoted arguments are joined back together before anything else
+        ArgumentView arguments = ArgumentTokenizer.tokenize(args, false).getArguments();
+        // Pass to a nested subcommand if needed
+        CommandNode node = resolve(arguments, arguments.size());
+        CommandHandler subcommand = node.getSubcommand();
+        CommandContext context = new CommandContext(sender, node, arguments.skip(node.getDepth()), platform);
+
+        // Asynchronous commands are measured where they run
+        if (subcommand instanceof AsyncCommandHandler) {
+            // Parsed here, since getAllowedFlags() may not be safe to call off the main thread
+            context.getArguments();
+            executeAsync(context, (AsyncCommandHandler) subcommand, args);
+            return true;
+        }
+
+        boolean success = measure(context, args, () -> subcommand.execute(context), Boolean::booleanValue);
+        // False if it cannot be run by itself
+        if (!success) cannotRun(context);
+        return success;
+    }
+
+    /**
+     * Tells the sender a command cannot be run by itself, along with any subcommand or flag they may have meant instead
+     * @param context The execution that returned false
+     */
+    private static void cannotRun(CommandContext context) {
+        Sender sender = context.getSender();
+        sender.sendMessage(CANNOT_RUN);
+        List<String> normalArguments = context.getArguments().getNormalArguments();
+        if (normalArguments.isEmpty()) return;
+        String typed = normalArguments.get(0);
+        List<String> similar = similar(context, typed);
+        if (similar.isEmpty()) return;
+
+        StringBuilder message = new StringBuilder(YELLOW + "Did you mean ");
+        for (int i = 0; i < similar.size(); i++) {
+            if (i > 0) message.append(i == similar.size() - 1 ? " or " : ", ");
+            if (typed.startsWith("-")) message.append(similar.get(i));
+            else message.append('/').append(context.getPath()).append(' ').append(similar.get(i));
+        }
+        sender.sendMessage(message.append('?').toString());
+    }
+
+    /**
+     * Finds subcommand names or flags (if what's typed starts with a dash) similar to a mistyped argument
+     * @param context The execution or tab completion
+     * @param typed The mistyped argument
+     * @return The similar names or flags, closest first
+     */
+    private static List<String> similar(CommandContext context, String typed) {
+        CommandNode node = context.getNode();
+        if (typed.startsWith("-")) return node.getSimilarFlags(context.getFlagTable(), typed);
+        return node.hasChildren() ? node.getSimilarChildNames(typed) : Collections.emptyList();
+    }
+
+    /**
+     * Runs an execution, measuring it for the metrics and handing it to the traffic recorder.
+     * Every way of executing a command goes through here (including batches), so they're all measured and recorded the same way;
+     * use this when running a command without going through execute().
+     * @param context The execution
+     * @param args The arguments after the base command's name, as split by spaces, for the recorder
+     * @param execution Runs the execution
+     * @param succeeded Whether what the execution returned means it succeeded
+     * @param <T> What the execution returns
+     * @return What the execution returned
+     */
+    public static <T> T measure(@NotNull CommandContext context, @NotNull String[] args, @NotNull Supplier<T> execution, @NotNull Predicate<? super T> succeeded) {
+        MetricsRegistry metrics = SubcommandCore.getMetrics();
+        TrafficRecorder recorder = SubcommandCore.getRecorder();
+        boolean recording = metrics.isEnabled();
+        long start = recording || recorder != null ? System.nanoTime() : 0;
+        long allocated = recording ? metrics.allocatedBytes() : -1;
+        T result = null;
+        try {
+            result = execution.get();
+            return result;
+        } finally {
+            CommandNode node = context.getNode();
+            if (recording) metrics.get(node.getPath()).recordExecution(System.nanoTime() - start, result != null && succeeded.test(result), allocatedSince(metrics, allocated));
+            if (recorder != null) record(recorder, TrafficRecord.Kind.EXECUTE, context.getSender(), node, args, start);
+        }
+    }
+
+    private static long allocatedSince(MetricsRegistry metrics, long before) {
+        return before < 0 ? -1 : metrics.allocatedBytes() - before;
+    }
+
+    private void executeAsync(CommandContext context, AsyncCommandHandler subcommand, String[] args) {
+        Sender sender = context.getSender();
+        CommandNode node = context.getNode();
+        ConcurrencyLimiter running = SubcommandCore.getRunning();
+        if (!running.tryAcquire(sender.getHandle(), subcommand.getMaxRunning(sender))) {
+            sender.sendMessage(RED + "Please wait for your previous command to finish.");
+            return;
+        }
+        try {
+            CompletableFuture.supplyAsync(() -> measure(context, args, () -> subcommand.execute(context), Boolean::booleanValue), subcommand.getExecutor())
+                    .whenComplete((result, error) -> {
+                        running.release(sender.getHandle());
+                        // The result is reported back on the main thread, like a synchronous command
+                        platform.getMainThread().execute(() -> {
+                            if (error != null) {
+                                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                                platform.getLogger().log(Level.SEVERE, "Unhandled exception executing /" + node.getPath(), cause);
+                                sender.sendMessage(RED + "An internal error occurred while attempting to perform this command.");
+                            } else if (!result) cannotRun(context);
+                        });
+                    });
+        } catch (RejectedExecutionException e) {
+            running.release(sender.getHandle());
+            sender.sendMessage(RED + "The server is too busy to run this command right now.");
+        }
+    }
+
+    /**
+     * Runs a CommandTask a few steps each tick through SubcommandCore's TaskScheduler, telling the sender about its progress and about any error.
+     * This is what {@link CommandContext#runTask(CommandTask)} does, but it can also be used for work started in other ways.
+     * @param sender The sender the task is for, who takes turns with other senders
+     * @param task The task
+     * @param platform Ticks the scheduler, and reports errors on its main thread
+     * @return A handle for cancelling the task or waiting for it to finish
+     */
+    @NotNull public static TaskHandle runTask(@NotNull Sender sender, @NotNull CommandTask task, @NotNull Platform platform) {
+        TaskHandle handle = SubcommandCore.getTaskScheduler().submit(sender.getKey(), task, running -> {
+            double progress = running.getProgress();
+            if (!Double.isNaN(progress)) sender.sendMessage(GRAY + "Progress: " + (int) (progress * 100) + "%");
+        });
+        handle.getCompletion().whenComplete((result, error) -> {
+            if (error == null) return;
+            // Cancelling can happen on any thread
+            platform.getMainThread().execute(error instanceof CancellationException
+                    ? () -> sender.sendMessage(RED + "Your command was cancelled.")
+                    : () -> {
+                        platform.getLogger().log(Level.SEVERE, "Unhandled exception running a command task", error);
+                        sender.sendMessage(RED + "An internal error occurred while attempting to perform this command.");
+                    });
+        });
+        platform.startTicking();
+        return handle;
+    }
+
+    /**
+     * Finds the tab suggestions for the argument being typed, narrowed down by what's already typed of it
+     * @param sender The sender typing the command
+     * @param args The arguments after the base command's name, as split by spaces, ending with the one being typed (empty if none of it is typed yet)
+     * @return A new List of suggestions
+     */
+    @NotNull public List<String> tabComplete(@NotNull Sender sender, @NotNull String... args) {
+        // Senders asking too often are answered from their last result instead
+        CompletionThrottle throttle = SubcommandCore.getCompletionThrottle();
+        Object senderKey = sender.getKey();
+        String command = root.getSubcommand().getName();
+        TrafficRecorder recorder = SubcommandCore.getRecorder();
+        long start = recorder != null ? System.nanoTime() : 0;
+        List<String> throttled = throttle.acquire(senderKey, command, args);
+        if (throttled == null) {
+            List<String> output = complete(sender, args);
+            throttle.remember(senderKey, command, args, output);
+            return output;
+        }
+
+        // Still counted and recorded, so metrics and replayed traffic include the floods the throttle answered
+        MetricsRegistry metrics = SubcommandCore.getMetrics();
+        if (metrics.isEnabled() || recorder != null) {
+            ArgumentView arguments = ArgumentTokenizer.tokenize(args, true).getArguments();
+            CommandNode node = resolve(arguments, arguments.size() - 1);
+            if (metrics.isEnabled()) metrics.get(node.getPath()).recordThrottledTabComplete();
+            if (recorder != null) record(recorder, TrafficRecord.Kind.TAB_COMPLETE, sender, node, args, start);
+        }
+        return throttled;
+    }
+
+    private List<String> complete(Sender sender, String[] args) {
+        MetricsRegistry metrics = SubcommandCore.getMetrics();
+        TrafficRecorder recorder = SubcommandCore.getRecorder();
+        boolean recording = metrics.isEnabled();
+        long start = recording || recorder != null ? System.nanoTime() : 0;
+        long allocated = recording ? metrics.allocatedBytes() : -1;
+
+        // The final argument may be inside a quote that hasn't been closed yet
+        TokenizedArguments tokens = ArgumentTokenizer.tokenize(args, true);
+        ArgumentView arguments = tokens.getArguments();
+        // Passes to a nested subcommand if needed (the final argument is still being typed)
+        CommandNode node = resolve(arguments, arguments.size() - 1);
+        if (!recording && recorder == null) return tabComplete(sender, node, tokens);
+        try {
+            return tabComplete(sender, node, tokens);
+        } finally {
+            if (recording) metrics.get(node.getPath()).recordTabComplete(System.nanoTime() - start, allocatedSince(metrics, allocated));
+            if (recorder != null) record(recorder, TrafficRecord.Kind.TAB_COMPLETE, sender, node, args, start);
+        }
+    }
+
+    /**
+     * Hands an execution or tab completion to the traffic recorder, which writes it on its own thread
+     */
+    private static void record(TrafficRecorder recorder, TrafficRecord.Kind kind, Sender sender, CommandNode node, String[] args, long start) {
+        CommandNode base = node;
+        while (base.getParent() != null) base = base.getParent();
+        recorder.record(kind, sender.getKey().toString(), base.getSubcommand().getName(), node.getPath(), args, System.nanoTime() - start);
+    }
+
+    private List<String> tabComplete(Sender sender, CommandNode node, TokenizedArguments tokens) {
+        CommandHandler subcommand = node.getSubcommand();
+        ArgumentView typedArguments = tokens.getArguments().skip(node.getDepth());
+        ArgumentView previouslySupplied = typedArguments.withoutLast();
+        String typed = typedArguments.last("");
+
+        // Flag clusters are suggested based on what's typed, so they can't be narrowed down from earlier suggestions,
+        // and the same previous arguments suggest different things before and after a --
+        CompletionCache cache = SubcommandCore.getCompletionCache();
+        Object senderKey = sender.getKey();
+        boolean cacheable = !typed.startsWith("-") && previouslySupplied.getEndOfFlags() == -1;
+        Candidates candidates = cacheable ? cache.get(senderKey, node, previouslySupplied, typed) : null;
+        CommandContext context = new CommandContext(sender, node, previouslySupplied, platform);
+        if (candidates == null) {
+            candidates = suggest(context, typed);
+            if (cacheable) candidates = cache.put(senderKey, node, previouslySupplied, typed, candidates);
+        }
+        List<String> output = candidates.narrow(typed);
+        List<String> hints = Collections.emptyList();
+
+        if (candidates.isExtendable()) {
+            // Only started once per sender for the same subcommand and previous arguments, then filled in once finished,
+            // and never for commands that don't override tabCompleteAsync()
+            if (!node.inheritsTabCompleteAsync()) {
+                // Parsed here, since getAllowedFlags() may not be safe to call off the main thread
+                context.getArguments();
+                String previous = previouslySupplied.last("");
+                // Called on the bounded executor, so a completer that blocks before returning its future never holds up the main thread
+                List<String> asyncTabCompletion = SubcommandCore.getAsyncCompleter().complete(
+                        sender.getHandle(),
+                        new AbstractMap.SimpleImmutableEntry<>(node, previouslySupplied),
+                        () -> AsyncUtils.composeAsync(() -> subcommand.tabCompleteAsync(context, previous), SubcommandCore.getAsyncExecutor())
+                );
+                output.addAll(TabUtils.narrow(asyncTabCompletion, typed));
+            }
+
+            // Nothing starts with what's typed, so it may be a typo
+            boolean flag = typed.startsWith("-");
+            if (output.isEmpty() && !typed.isEmpty() && (!flag || previouslySupplied.getEndOfFlags() == -1)) hints = similar(context, typed);
+        }
+
+        // Suggestions inside quotes or after escapes have to be typed the same way
+        if (!tokens.isPlain()) output.replaceAll(tokens::toReplacement);
+        // Typo hints don't start with what's typed, so they replace it as they are
+        output.addAll(hints);
+        return output;
+    }
+
+    /**
+     * Finds every tab suggestion for the argument being typed, before narrowing them down
+     * @param context The tab completion, with the arguments before the one being typed
+     * @param typed The argument being typed
+     * @return All suggestions
+     */
+    private static Candidates suggest(CommandContext context, String typed) {
+        CommandHandler subcommand = context.getSubcommand();
+        ParsedArguments arguments = context.getArguments();
+        // Checks whether to base the tab completion off valid options for a CommandOption
+        if (arguments.isAwaitingOption()) {
+            Candidates candidates = new Candidates(false);
+            candidates.addAll(((CommandOption) arguments.getFlag(arguments.size() - 1)).getSuggestedOptions());
+            return candidates;
+        }
+
+        // Initializes the output as all subcommand names, then adds everything else
+        Candidates candidates = new Candidates(true);
+        candidates.addAll(context.getNode().getChildNames());
+        candidates.addAll(subcommand.tabComplete(context, context.getRawArguments().last("")));
+        // Nothing after a -- can be a flag
+        if (context.getRawArguments().getEndOfFlags() != -1) return candidates;
+        for (CommandFlag flag : context.getSuggestedFlags()) candidates.add(flag.toString());
+
+        // Get the current flag sequence to build upon
+        FlagTable flags = context.getFlagTable();
+        List<CommandFlag> sequence = TabUtils.parse(Collections.singletonList(typed), flags).getFlags();
+        if (!sequence.isEmpty() && sequence.get(sequence.size()-1).getFlag().length() == 1) {
+            // Add any suggested single-digit flags
+            for (Character character : sequence.get(sequence.size()-1).getSuggestedNext(sequence)) {
+                if (flags.getShort(character) != null) candidates.add(typed + character);
+            }
+        }
+        return candidates;
+    }
+}
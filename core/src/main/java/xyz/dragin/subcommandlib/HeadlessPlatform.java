@@ -0,0 +1,48 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.task.TaskScheduler;
+
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+/**
+ * The Platform from {@link Platform#headless()}
+ */
+final class HeadlessPlatform implements Platform {
+    static final HeadlessPlatform INSTANCE = new HeadlessPlatform();
+    // Set while this thread ticks, so a task started by a step is picked up by the same loop instead of ticking inside a tick
+    private static final ThreadLocal<Boolean> TICKING = new ThreadLocal<>();
+    private final Logger logger = Logger.getLogger(Dispatcher.class.getName());
+
+    private HeadlessPlatform() {
+    }
+
+    @Override
+    @NotNull public Executor getMainThread() {
+        return Runnable::run;
+    }
+
+    @Override
+    @NotNull public Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * Ticks a scheduler until it has no tasks left, one thread at a time
+     * @param scheduler The scheduler
+     */
+    static void tickUntilDone(TaskScheduler scheduler) {
+        if (TICKING.get() != null) return;
+        TICKING.set(Boolean.TRUE);
+        try {
+            synchronized (scheduler) {
+                while (scheduler.getRunning() > 0) {
+                    if (scheduler.tick() == 0) break;
+                }
+            }
+        } finally {
+            TICKING.remove();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A CommandHandler that stands in for another one until it's needed, so its parent can find and suggest it by name without creating it.
+ * A {@link CommandNode} only calls get() once its node is dispatched into, and compiles the children again whenever getLoads() changes.
+ * On Spigot, use LazySubcommand.
+ */
+public interface LazyCommandHandler extends CommandHandler {
+    /**
+     * Gets the command, creating it if it hasn't been yet (or was discarded)
+     * @return The command
+     */
+    @NotNull CommandHandler get();
+
+    /**
+     * Gets the command without creating it
+     * @return The command, or null if it hasn't been created yet or was discarded
+     */
+    @Nullable CommandHandler getIfLoaded();
+
+    /**
+     * Gets how many times the command has been created
+     * @return The amount of times it was created
+     */
+    int getLoads();
+}
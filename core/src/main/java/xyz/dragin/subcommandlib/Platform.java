@@ -0,0 +1,40 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+/**
+ * What a Dispatcher needs from the server or proxy it runs on: a main thread, a logger and something ticking tasks.
+ * The spigot module schedules through a plugin; {@link #headless()} works on a plain JVM, e.g. for tests, benchmarks and replays.
+ */
+public interface Platform {
+    /**
+     * Gets an Executor for the main thread, which runs things right away if already on it
+     * @return The Executor
+     */
+    @NotNull Executor getMainThread();
+
+    /**
+     * Gets where unhandled exceptions from commands are logged
+     * @return The Logger
+     */
+    @NotNull Logger getLogger();
+
+    /**
+     * Makes sure the TaskScheduler of {@link SubcommandCore} is ticked once per tick while it has tasks, e.g. after one was submitted.
+     * Default behavior: Ticks it right away on this thread until it has no tasks left, for platforms without ticks (e.g. tests).
+     */
+    default void startTicking() {
+        HeadlessPlatform.tickUntilDone(SubcommandCore.getTaskScheduler());
+    }
+
+    /**
+     * Gets a Platform without a server, where anything meant for the main thread runs right away on the thread it's given from
+     * @return The Platform
+     */
+    @NotNull static Platform headless() {
+        return HeadlessPlatform.INSTANCE;
+    }
+}
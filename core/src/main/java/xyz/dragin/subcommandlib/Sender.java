@@ -0,0 +1,46 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Whoever is running or typing a command, as seen by the core module.
+ * Each platform adapts its own senders to this (e.g. the spigot module's BukkitSender wraps a CommandSender),
+ * so command trees can be dispatched anywhere, including on a proxy or in a test without a server.
+ */
+public interface Sender {
+    /**
+     * Gets the name of the sender, e.g. a player's name or "CONSOLE"
+     * @return The name
+     */
+    @NotNull String getName();
+
+    /**
+     * Sends the sender a message, which may contain legacy formatting codes, like the ones of Bukkit's ChatColor
+     * @param message The message
+     */
+    void sendMessage(@NotNull String message);
+
+    /**
+     * Whether the sender has a permission
+     * @param permission The permission node
+     * @return True if they have it
+     */
+    boolean hasPermission(@NotNull String permission);
+
+    /**
+     * Gets something that identifies the sender across commands, which unlike the sender itself is safe to keep after they leave.
+     * Tab suggestions, throttling, recordings and tasks are kept by this.
+     * @return An identifier with a meaningful toString(), e.g. a player's UUID, otherwise the name of the sender
+     */
+    @NotNull Object getKey();
+
+    /**
+     * Gets the platform's own object for the sender, which is the same for every wrapper created for them.
+     * Anything only kept while the sender is around (e.g. their running asynchronous tab completion) is kept by this.
+     * Default behavior: Returns this Sender.
+     * @return The platform's sender
+     */
+    @NotNull default Object getHandle() {
+        return this;
+    }
+}
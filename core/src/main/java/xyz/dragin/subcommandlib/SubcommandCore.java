@@ -0,0 +1,166 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.completion.AsyncCompleter;
+import xyz.dragin.subcommandlib.completion.CompletionCache;
+import xyz.dragin.subcommandlib.completion.CompletionThrottle;
+import xyz.dragin.subcommandlib.metrics.MetricsRegistry;
+import xyz.dragin.subcommandlib.recording.TrafficRecorder;
+import xyz.dragin.subcommandlib.task.TaskScheduler;
+import xyz.dragin.subcommandlib.util.AsyncUtils;
+import xyz.dragin.subcommandlib.util.ConcurrencyLimiter;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * What every {@link Dispatcher} shares, whatever platform it runs on: executors, caches, throttles, metrics and the task scheduler.
+ * On Spigot, SubcommandLib's getters and setters for these are the same instances.
+ */
+public final class SubcommandCore {
+    private static ExecutorService asyncExecutor;
+    private static volatile AsyncCompleter asyncCompleter;
+    private static final MetricsRegistry metrics = new MetricsRegistry();
+    private static volatile CompletionCache completionCache = new CompletionCache(1024, 4096, 10_000);
+    private static volatile CompletionThrottle completionThrottle = new CompletionThrottle(20, 40);
+    private static volatile TaskScheduler taskScheduler = new TaskScheduler(5, 5000);
+    private static volatile TrafficRecorder recorder;
+    private static final ConcurrencyLimiter running = new ConcurrencyLimiter();
+
+    private SubcommandCore() {
+    }
+
+    /**
+     * Gets the executor for work that shouldn't run on the main thread, such as asynchronous tab completions and asynchronous commands.
+     * Unless replaced, this is a small pool of daemon threads with a bounded queue; work beyond that is rejected.
+     * @return The executor
+     */
+    @NotNull public static synchronized ExecutorService getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+            asyncExecutor = AsyncUtils.newBoundedExecutor("SubcommandLib Async", threads, 256);
+        }
+        return asyncExecutor;
+    }
+
+    /**
+     * Replaces the executor for work that shouldn't run on the main thread. The previous one isn't shut down.
+     * @param executor The new executor
+     */
+    public static synchronized void setAsyncExecutor(@NotNull ExecutorService executor) {
+        asyncExecutor = executor;
+    }
+
+    /**
+     * Gets what keeps track of asynchronous tab completions (see {@link CommandHandler#tabCompleteAsync}).
+     * Unless replaced, completions time out after 2 seconds, the main thread never waits for them, and finished results are reused for 10 seconds.
+     * @return The AsyncCompleter used by every Dispatcher
+     */
+    @NotNull public static AsyncCompleter getAsyncCompleter() {
+        AsyncCompleter completer = asyncCompleter;
+        if (completer == null) {
+            synchronized (SubcommandCore.class) {
+                if (asyncCompleter == null) asyncCompleter = new AsyncCompleter(2000, 0);
+                completer = asyncCompleter;
+            }
+        }
+        return completer;
+    }
+
+    /**
+     * Replaces what keeps track of asynchronous tab completions, e.g. to change the timeout
+     * @param completer The new AsyncCompleter
+     */
+    public static void setAsyncCompleter(@NotNull AsyncCompleter completer) {
+        asyncCompleter = completer;
+    }
+
+    /**
+     * Gets where the last tab suggestions of each sender are remembered, so typing more of an argument only narrows them down.
+     * Unless replaced, suggestions are remembered for 10 seconds for up to 1024 senders.
+     * @return The CompletionCache used by every Dispatcher
+     */
+    @NotNull public static CompletionCache getCompletionCache() {
+        return completionCache;
+    }
+
+    /**
+     * Replaces where tab suggestions are remembered, e.g. to change its limits or disable it with 0 maxSenders
+     * @param cache The new CompletionCache
+     */
+    public static void setCompletionCache(@NotNull CompletionCache cache) {
+        completionCache = cache;
+    }
+
+    /**
+     * Gets what limits how often each sender's tab completions are computed, e.g. to read how many were coalesced or dropped.
+     * Unless replaced, each sender can have 20 completions per second computed for each base command, in bursts of up to 40.
+     * @return The CompletionThrottle used by every Dispatcher
+     */
+    @NotNull public static CompletionThrottle getCompletionThrottle() {
+        return completionThrottle;
+    }
+
+    /**
+     * Replaces what limits how often tab completions are computed, e.g. to change the limits or disable it with a rate of 0
+     * @param throttle The new CompletionThrottle
+     */
+    public static void setCompletionThrottle(@NotNull CompletionThrottle throttle) {
+        completionThrottle = throttle;
+    }
+
+    /**
+     * Gets the metrics of every command: how often each subcommand is executed and tab completed,
+     * how often it fails, and how long it takes. Turn recording off with MetricsRegistry.setEnabled(false).
+     * @return The MetricsRegistry used by every Dispatcher
+     */
+    @NotNull public static MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets what records every execution and tab completion, e.g. for replaying them in a load test
+     * @return The TrafficRecorder, or null if nothing is being recorded (the default)
+     */
+    @Nullable public static TrafficRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Starts recording every execution and tab completion, or stops if null.
+     * The previous recorder isn't closed.
+     * @param recorder The new TrafficRecorder, or null
+     */
+    public static void setRecorder(@Nullable TrafficRecorder recorder) {
+        SubcommandCore.recorder = recorder;
+    }
+
+    /**
+     * Gets the scheduler that runs the steps of every CommandTask, e.g. to cancel the tasks of a sender.
+     * Unless replaced, steps run for up to 5 milliseconds each tick, and progress is reported every 5 seconds.
+     * @return The TaskScheduler used by every Dispatcher
+     */
+    @NotNull public static TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    /**
+     * Replaces the scheduler that runs the steps of every CommandTask, e.g. to change the budget per tick.
+     * Tasks still running on the previous one are cancelled.
+     * @param scheduler The new TaskScheduler
+     */
+    public static void setTaskScheduler(@NotNull TaskScheduler scheduler) {
+        TaskScheduler previous = taskScheduler;
+        taskScheduler = scheduler;
+        if (previous != scheduler) previous.cancelAll();
+    }
+
+    /**
+     * Gets what counts the asynchronous commands each sender has running, keyed by {@link Sender#getHandle()}.
+     * Shared by every Dispatcher and batch, so a sender's asynchronous commands all count towards the same limit.
+     * @return The ConcurrencyLimiter
+     */
+    @NotNull public static ConcurrencyLimiter getRunning() {
+        return running;
+    }
+}
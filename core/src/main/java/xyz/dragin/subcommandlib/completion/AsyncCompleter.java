@@ -0,0 +1,203 @@
+package xyz.dragin.subcommandlib.completion;
+
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.util.AsyncUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of asynchronous tab completions, one per sender.
+ * A completion is only started when a sender asks for something new, and results are returned once its future finishes.
+ * Until then, the sender gets no asynchronous suggestions, so the main thread never waits longer than the configured wait.
+ * Starting a new completion cancels the sender's previous one if it's still running, and completions are cancelled after a timeout.
+ * Finished results are reused for the same request until they're older than their time to live, then the completion is started again.
+ * Senders can be any object (e.g. from Sender.getHandle()), and are only weakly referenced.
+ * Completions are started outside of the lock on the senders, so a slow one never holds up the completions of other senders.
+ */
+public final class AsyncCompleter {
+    private static final long DEFAULT_RESULT_TTL_MILLIS = 10_000;
+
+    private final long timeoutMillis;
+    private final long waitMillis;
+    private final long resultTtlNanos;
+    private final ScheduledExecutorService timer;
+    private final LongSupplier clock;
+    private final Map<Object, Request> requests = new WeakHashMap<>();
+
+    /**
+     * Initialization constructor with its own timeout thread, reusing finished results for 10 seconds
+     * @param timeoutMillis How long a completion can run before it's cancelled, or 0 for no timeout
+     * @param waitMillis How long to wait for a completion before returning without it, usually 0
+     */
+    public AsyncCompleter(long timeoutMillis, long waitMillis) {
+        this(timeoutMillis, waitMillis, AsyncUtils.newTimer("SubcommandLib Completion Timeout"));
+    }
+
+    /**
+     * Initialization constructor reusing finished results for 10 seconds
+     * @param timeoutMillis How long a completion can run before it's cancelled, or 0 for no timeout
+     * @param waitMillis How long to wait for a completion before returning without it, usually 0
+     * @param timer Scheduler used to cancel completions after the timeout
+     */
+    public AsyncCompleter(long timeoutMillis, long waitMillis, @NotNull ScheduledExecutorService timer) {
+        this(timeoutMillis, waitMillis, DEFAULT_RESULT_TTL_MILLIS, timer, System::nanoTime);
+    }
+
+    /**
+     * Initialization constructor with a custom clock, e.g. for testing
+     * @param timeoutMillis How long a completion can run before it's cancelled, or 0 for no timeout
+     * @param waitMillis How long to wait for a completion before returning without it, usually 0
+     * @param resultTtlMillis How long a finished result is reused for the same request, or 0 to reuse it until the sender asks for something else
+     * @param timer Scheduler used to cancel completions after the timeout
+     * @param nanoClock The current time in nanoseconds
+     */
+    public AsyncCompleter(long timeoutMillis, long waitMillis, long resultTtlMillis, @NotNull ScheduledExecutorService timer, @NotNull LongSupplier nanoClock) {
+        this.timeoutMillis = timeoutMillis;
+        this.waitMillis = waitMillis;
+        this.resultTtlNanos = TimeUnit.MILLISECONDS.toNanos(resultTtlMillis);
+        this.timer = timer;
+        this.clock = nanoClock;
+    }
+
+    /**
+     * Gets asynchronous suggestions for a sender, starting a completion if it hasn't asked for these suggestions yet
+     * @param sender The sender typing the command
+     * @param key What the suggestions are for (compared with equals), e.g. the subcommand and previous arguments
+     * @param request Starts the completion; only called if the sender hasn't asked for the same key already
+     * @return The suggestions if the completion has finished, otherwise an empty List
+     */
+    @NotNull public List<String> complete(@NotNull Object sender, @NotNull Object key, @NotNull Supplier<CompletableFuture<List<String>>> request) {
+        Request previous;
+        synchronized (requests) {
+            previous = requests.get(sender);
+        }
+        CompletableFuture<List<String>> future = previous != null && previous.key.equals(key) && !previous.expired()
+                ? previous.future
+                : start(sender, key, previous, request);
+        if (future == null) return Collections.emptyList();
+
+        if (waitMillis > 0 && !future.isDone()) {
+            try {
+                future.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException | CancellationException ignored) {
+                // Handled by resultOf
+            }
+        }
+        return resultOf(future);
+    }
+
+    /**
+     * Starts a completion without holding the lock, then publishes it unless another thread started the same one first
+     * @return The future of the sender's completion for the key, or null if it was rejected
+     */
+    private CompletableFuture<List<String>> start(Object sender, Object key, Request previous, Supplier<CompletableFuture<List<String>>> request) {
+        CompletableFuture<List<String>> future;
+        try {
+            future = request.get();
+        } catch (RejectedExecutionException e) {
+            future = null;
+        }
+        // Finished (or rejected) right away, so there's nothing to keep track of
+        if (future == null || future.isDone()) {
+            synchronized (requests) {
+                if (requests.get(sender) == previous) requests.remove(sender);
+            }
+            // A newer request makes the last one stale
+            if (previous != null) previous.cancel();
+            return future;
+        }
+
+        Request created = new Request(key, future);
+        Request replaced;
+        synchronized (requests) {
+            Request latest = requests.get(sender);
+            if (latest != previous && latest != null && latest.key.equals(key) && !latest.expired()) {
+                replaced = created;
+                created = latest;
+            } else {
+                replaced = latest;
+                requests.put(sender, created);
+            }
+        }
+        if (replaced != null) replaced.cancel();
+        return created.future;
+    }
+
+    /**
+     * Cancels a sender's running completion and forgets its results
+     * @param sender The sender
+     */
+    public void cancel(@NotNull Object sender) {
+        Request request;
+        synchronized (requests) {
+            request = requests.remove(sender);
+        }
+        if (request != null) request.cancel();
+    }
+
+    /**
+     * Gets how long a completion can run before it's cancelled
+     * @return The timeout in milliseconds, or 0 for no timeout
+     */
+    public long getTimeoutMillis() { return timeoutMillis; }
+
+    /**
+     * Gets how long to wait for a completion before returning without it
+     * @return The wait in milliseconds
+     */
+    public long getWaitMillis() { return waitMillis; }
+
+    private static List<String> resultOf(CompletableFuture<List<String>> future) {
+        if (!future.isDone() || future.isCompletedExceptionally()) return Collections.emptyList();
+        List<String> result = future.getNow(null);
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    private final class Request {
+        private final Object key;
+        private final CompletableFuture<List<String>> future;
+        private final ScheduledFuture<?> timeout;
+        private volatile long finishedAt;
+        private volatile boolean finished;
+
+        private Request(Object key, CompletableFuture<List<String>> future) {
+            this.key = key;
+            this.future = future;
+            if (timeoutMillis > 0) {
+                timeout = timer.schedule(() -> future.cancel(true), timeoutMillis, TimeUnit.MILLISECONDS);
+                future.whenComplete((result, error) -> timeout.cancel(false));
+            } else timeout = null;
+            future.whenComplete((result, error) -> {
+                finishedAt = clock.getAsLong();
+                finished = true;
+            });
+        }
+
+        /**
+         * Whether the result is finished and too old to be reused
+         */
+        private boolean expired() {
+            return resultTtlNanos > 0 && finished && clock.getAsLong() - finishedAt > resultTtlNanos;
+        }
+
+        private void cancel() {
+            future.cancel(true);
+            if (timeout != null) timeout.cancel(false);
+        }
+    }
+}
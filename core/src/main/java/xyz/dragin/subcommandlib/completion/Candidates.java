@@ -0,0 +1,96 @@
+package xyz.dragin.subcommandlib.completion;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.util.SuggestionIndex;
+import xyz.dragin.subcommandlib.util.TabUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tab suggestions before they're narrowed down by what's typed.
+ * Any {@link SuggestionIndex} added is kept as it is, so it can be narrowed with a binary search instead of one suggestion at a time.
+ */
+public final class Candidates {
+    private final List<String> suggestions;
+    private final List<SuggestionIndex> indexes;
+    private final boolean extendable;
+
+    /**
+     * Initialization constructor
+     * @param extendable Whether suggestions found later (e.g. asynchronous ones) can be added to these
+     */
+    public Candidates(boolean extendable) {
+        this(new ArrayList<>(), new ArrayList<>(0), extendable);
+    }
+
+    private Candidates(List<String> suggestions, List<SuggestionIndex> indexes, boolean extendable) {
+        this.suggestions = suggestions;
+        this.indexes = indexes;
+        this.extendable = extendable;
+    }
+
+    /**
+     * Adds a suggestion
+     * @param suggestion The suggestion
+     */
+    public void add(@NotNull String suggestion) {
+        suggestions.add(suggestion);
+    }
+
+    /**
+     * Adds suggestions, keeping a SuggestionIndex as it is
+     * @param suggestions The suggestions
+     */
+    public void addAll(@NotNull List<String> suggestions) {
+        if (suggestions instanceof SuggestionIndex) indexes.add((SuggestionIndex) suggestions);
+        else this.suggestions.addAll(suggestions);
+    }
+
+    /**
+     * Whether suggestions found later (e.g. asynchronous ones) can be added to these
+     * @return False if these suggestions replace all others, e.g. the suggested parameters of a CommandOption
+     */
+    public boolean isExtendable() {
+        return extendable;
+    }
+
+    /**
+     * Gets the amount of suggestions that aren't in a SuggestionIndex
+     * @return The amount of plain suggestions
+     */
+    public int size() {
+        return suggestions.size();
+    }
+
+    /**
+     * Narrows the plain suggestions down, keeping every SuggestionIndex as it is.
+     * Narrowing the result again by something starting with the same text gives the same suggestions as narrowing this.
+     * @param typed What's already typed
+     * @return New Candidates containing only plain suggestions that start with what was typed
+     */
+    @NotNull public Candidates narrowTo(@Nullable String typed) {
+        return new Candidates(TabUtils.narrow(suggestions, typed), indexes, extendable);
+    }
+
+    /**
+     * Narrows down all suggestions based on what's already typed
+     * @param typed What's already typed
+     * @return A new List of all the suggestions that start with what was typed
+     */
+    @NotNull public List<String> narrow(@Nullable String typed) {
+        List<String> output = TabUtils.narrow(suggestions, typed);
+        for (SuggestionIndex index : indexes) output.addAll(index.narrow(typed));
+        return output;
+    }
+
+    /**
+     * Gets the plain suggestions that aren't in a SuggestionIndex
+     * @return An unmodifiable view of the plain suggestions
+     */
+    @NotNull public List<String> getSuggestions() {
+        return Collections.unmodifiableList(suggestions);
+    }
+}
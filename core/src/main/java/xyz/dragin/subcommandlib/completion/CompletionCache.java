@@ -0,0 +1,181 @@
+package xyz.dragin.subcommandlib.completion;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Remembers the last tab suggestions of each sender, so typing more of the same argument
+ * (e.g. "/region set fl", then "fla", then "flag") only narrows down the previous suggestions instead of finding them again.
+ * Suggestions are remembered for a scope (e.g. the subcommand being completed) and the arguments before the one being typed.
+ * Only a limited amount of senders are remembered, least recently used first out, and every entry expires after a while.
+ * Senders and scopes can be any objects; they're compared with equals.
+ */
+public final class CompletionCache {
+    private final int maxSenders;
+    private final int maxSuggestions;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<Object, CachedCompletion> entries;
+
+    /**
+     * Initialization constructor
+     * @param maxSenders The maximum amount of senders to remember suggestions for, or 0 to disable the cache
+     * @param maxSuggestions The maximum amount of plain suggestions (not counting SuggestionIndexes) to remember per sender
+     * @param ttlMillis How long suggestions are remembered for
+     */
+    public CompletionCache(int maxSenders, int maxSuggestions, long ttlMillis) {
+        this(maxSenders, maxSuggestions, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * Initialization constructor with a custom clock, e.g. for testing
+     * @param maxSenders The maximum amount of senders to remember suggestions for, or 0 to disable the cache
+     * @param maxSuggestions The maximum amount of plain suggestions (not counting SuggestionIndexes) to remember per sender
+     * @param ttlMillis How long suggestions are remembered for
+     * @param nanoClock The current time in nanoseconds
+     */
+    public CompletionCache(int maxSenders, int maxSuggestions, long ttlMillis, @NotNull LongSupplier nanoClock) {
+        this.maxSenders = maxSenders;
+        this.maxSuggestions = maxSuggestions;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.clock = nanoClock;
+        this.entries = new LinkedHashMap<Object, CachedCompletion>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CachedCompletion> eldest) {
+                return size() > CompletionCache.this.maxSenders;
+            }
+        };
+    }
+
+    /**
+     * Whether anything is remembered at all
+     * @return False if the cache was created with 0 maxSenders
+     */
+    public boolean isEnabled() {
+        return maxSenders > 0;
+    }
+
+    /**
+     * Finds the remembered suggestions of a sender, narrowed down by what's typed
+     * @param sender The sender typing the command
+     * @param scope What's being completed, e.g. the subcommand
+     * @param previous The arguments before the one being typed
+     * @param typed The argument being typed
+     * @return The remembered suggestions starting with what's typed, or null if nothing is remembered for these arguments
+     */
+    @Nullable public Candidates get(@NotNull Object sender, @NotNull Object scope, @NotNull List<String> previous, @NotNull String typed) {
+        if (!isEnabled()) return null;
+        synchronized (entries) {
+            CachedCompletion entry = entries.get(sender);
+            if (entry == null) return null;
+            if (clock.getAsLong() - entry.created > ttlNanos) {
+                entries.remove(sender);
+                return null;
+            }
+            if (!entry.scope.equals(scope) || !entry.previous.equals(previous)) return null;
+
+            // Typing more of the argument only removes suggestions, so start from the last narrowed ones
+            Candidates from = typed.startsWith(entry.typed) ? entry.narrowed : entry.all;
+            if (!typed.equals(entry.typed)) {
+                entry.narrowed = from.narrowTo(typed);
+                entry.typed = typed;
+            }
+            return entry.narrowed;
+        }
+    }
+
+    /**
+     * Remembers the suggestions of a sender, unless there are too many of them
+     * @param sender The sender typing the command
+     * @param scope What's being completed, e.g. the subcommand
+     * @param previous The arguments before the one being typed
+     * @param typed The argument being typed
+     * @param candidates All suggestions for these arguments, not narrowed down by what's typed
+     * @return The suggestions narrowed down by what's typed
+     */
+    @NotNull public Candidates put(@NotNull Object sender, @NotNull Object scope, @NotNull List<String> previous, @NotNull String typed, @NotNull Candidates candidates) {
+        Candidates narrowed = candidates.narrowTo(typed);
+        if (!isEnabled() || candidates.size() > maxSuggestions) return narrowed;
+        CachedCompletion entry = new CachedCompletion(scope, new ArrayList<>(previous), clock.getAsLong(), candidates, typed, narrowed);
+        synchronized (entries) {
+            entries.put(sender, entry);
+        }
+        return narrowed;
+    }
+
+    /**
+     * Forgets all remembered suggestions, e.g. when what's suggested has changed
+     */
+    public void invalidate() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Forgets all remembered suggestions for a scope, e.g. when what a certain subcommand suggests has changed
+     * @param scope The scope of the suggestions to forget
+     */
+    public void invalidate(@NotNull Object scope) {
+        invalidateIf(scope::equals);
+    }
+
+    /**
+     * Forgets all remembered suggestions for scopes that match a condition
+     * @param scope Checks whether to forget the suggestions of a scope
+     */
+    public void invalidateIf(@NotNull Predicate<Object> scope) {
+        synchronized (entries) {
+            Iterator<CachedCompletion> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (scope.test(iterator.next().scope)) iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Forgets the remembered suggestions of a sender
+     * @param sender The sender
+     */
+    public void invalidateSender(@NotNull Object sender) {
+        synchronized (entries) {
+            entries.remove(sender);
+        }
+    }
+
+    /**
+     * Gets the amount of senders with remembered suggestions
+     * @return The amount of cached senders, including any that have expired but haven't been removed yet
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class CachedCompletion {
+        private final Object scope;
+        private final List<String> previous;
+        private final long created;
+        private final Candidates all;
+        private String typed;
+        private Candidates narrowed;
+
+        private CachedCompletion(Object scope, List<String> previous, long created, Candidates all, String typed, Candidates narrowed) {
+            this.scope = scope;
+            this.previous = previous;
+            this.created = created;
+            this.all = all;
+            this.typed = typed;
+            this.narrowed = narrowed;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package xyz.dragin.subcommandlib.completion;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.util.TabUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how often each sender's tab completions are computed, since clients ask on almost every keystroke and some spam requests.
+ * Every sender has a token bucket per base command: each computed completion takes a token, and tokens refill at a steady rate up to a burst.
+ * A request without a token is coalesced: it's answered from the sender's most recent computed result, narrowed down by what's typed,
+ * as long as that result was for the same earlier arguments. Otherwise it's dropped and gets no suggestions.
+ * Senders can be any objects; they're compared with equals.
+ */
+public final class CompletionThrottle {
+    private static final int CLEAN_UP_INTERVAL = 4096;
+    private static final long IDLE_NANOS = 60_000_000_000L;
+
+    private final Limit defaultLimit;
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private final Map<Object, SenderBuckets> senders = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final AtomicInteger untilCleanUp = new AtomicInteger(CLEAN_UP_INTERVAL);
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Initialization constructor
+     * @param perSecond How many completions each sender can have computed per second for a command, or 0 or less to not limit them
+     * @param burst How many completions can be computed at once before the rate applies
+     */
+    public CompletionThrottle(double perSecond, int burst) {
+        this(perSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * Initialization constructor with a custom clock, e.g. for testing
+     * @param perSecond How many completions each sender can have computed per second for a command, or 0 or less to not limit them
+     * @param burst How many completions can be computed at once before the rate applies
+     * @param nanoClock The current time in nanoseconds
+     */
+    public CompletionThrottle(double perSecond, int burst, @NotNull LongSupplier nanoClock) {
+        this.defaultLimit = new Limit(perSecond, burst);
+        this.clock = nanoClock;
+    }
+
+    /**
+     * Changes the limit of one base command, e.g. for one whose completions are expensive
+     * @param command The name of the base command
+     * @param perSecond How many completions each sender can have computed per second, or 0 or less to not limit them
+     * @param burst How many completions can be computed at once before the rate applies
+     */
+    public void setLimit(@NotNull String command, double perSecond, int burst) {
+        limits.put(command, new Limit(perSecond, burst));
+    }
+
+    /**
+     * Makes a base command use the default limit again
+     * @param command The name of the base command
+     */
+    public void removeLimit(@NotNull String command) {
+        limits.remove(command);
+    }
+
+    /**
+     * Takes a token for a tab completion, or answers it without computing it if there are none left
+     * @param sender The sender, e.g. from Sender.getKey()
+     * @param command The name of the base command
+     * @param arguments The arguments after the base command's name, ending with the one being typed
+     * @return Null if the completion should be computed (then give the result to {@link #remember}),
+     * otherwise a new List of suggestions from the last result, which is empty if the request was dropped
+     */
+    @Nullable public List<String> acquire(@NotNull Object sender, @NotNull String command, @NotNull String[] arguments) {
+        Limit limit = limit(command);
+        if (limit.unlimited()) {
+            computed.increment();
+            return null;
+        }
+        if (untilCleanUp.decrementAndGet() <= 0) {
+            untilCleanUp.set(CLEAN_UP_INTERVAL);
+            cleanUp();
+        }
+
+        long now = clock.getAsLong();
+        SenderBuckets buckets = senders.computeIfAbsent(sender, key -> new SenderBuckets());
+        List<String> last;
+        String[] lastArguments;
+        synchronized (buckets) {
+            Bucket bucket = buckets.get(command, limit, now);
+            if (bucket.take(limit, now)) {
+                computed.increment();
+                return null;
+            }
+            last = bucket.lastResult;
+            lastArguments = bucket.lastArguments;
+        }
+
+        if (last != null && sameEarlierArguments(lastArguments, arguments)) {
+            coalesced.increment();
+            return TabUtils.narrow(last, arguments.length == 0 ? "" : arguments[arguments.length - 1]);
+        }
+        dropped.increment();
+        return new ArrayList<>(0);
+    }
+
+    /**
+     * Remembers a computed tab completion, so requests without a token can be answered from it
+     * @param sender The sender, as given to acquire()
+     * @param command The name of the base command
+     * @param arguments The arguments, as given to acquire()
+     * @param result The suggestions, which are copied
+     */
+    public void remember(@NotNull Object sender, @NotNull String command, @NotNull String[] arguments, @NotNull List<String> result) {
+        if (limit(command).unlimited()) return;
+        SenderBuckets buckets = senders.get(sender);
+        if (buckets == null) return;
+        List<String> copy = Collections.unmodifiableList(new ArrayList<>(result));
+        synchronized (buckets) {
+            Bucket bucket = buckets.byCommand.get(command);
+            if (bucket == null) return;
+            bucket.lastArguments = arguments;
+            bucket.lastResult = copy;
+        }
+    }
+
+    /**
+     * Forgets the buckets and last results of a sender, e.g. when they leave
+     * @param sender The sender
+     */
+    public void forget(@NotNull Object sender) {
+        senders.remove(sender);
+    }
+
+    /**
+     * Gets the amount of tab completions that were allowed to be computed
+     * @return The amount of requests
+     */
+    public long getComputed() { return computed.sum(); }
+
+    /**
+     * Gets the amount of tab completions answered from an earlier result
+     * @return The amount of requests
+     */
+    public long getCoalesced() { return coalesced.sum(); }
+
+    /**
+     * Gets the amount of tab completions that got no suggestions, because there was no earlier result for the same arguments
+     * @return The amount of requests
+     */
+    public long getDropped() { return dropped.sum(); }
+
+    /**
+     * Gets the amount of senders being limited
+     * @return The amount of senders with a bucket
+     */
+    public int size() { return senders.size(); }
+
+    private Limit limit(String command) {
+        Limit limit = limits.get(command);
+        return limit != null ? limit : defaultLimit;
+    }
+
+    private static boolean sameEarlierArguments(String[] last, String[] arguments) {
+        if (last.length != arguments.length) return false;
+        for (int i = 0; i < arguments.length - 1; i++) {
+            if (!last[i].equals(arguments[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Forgets senders that haven't asked for anything in a while, whose buckets would be full again anyway
+     */
+    private void cleanUp() {
+        long now = clock.getAsLong();
+        Iterator<SenderBuckets> iterator = senders.values().iterator();
+        while (iterator.hasNext()) {
+            SenderBuckets buckets = iterator.next();
+            synchronized (buckets) {
+                if (now - buckets.lastUsed > IDLE_NANOS) iterator.remove();
+            }
+        }
+    }
+
+    private static final class Limit {
+        private final double perNano;
+        private final int burst;
+
+        private Limit(double perSecond, int burst) {
+            this.perNano = perSecond / 1e9;
+            this.burst = Math.max(1, burst);
+        }
+
+        private boolean unlimited() {
+            return perNano <= 0;
+        }
+    }
+
+    private static final class SenderBuckets {
+        // Most senders only ever complete a few commands
+        private final Map<String, Bucket> byCommand = new HashMap<>(4);
+        private long lastUsed;
+
+        private Bucket get(String command, Limit limit, long now) {
+            lastUsed = now;
+            Bucket bucket = byCommand.get(command);
+            if (bucket == null) {
+                bucket = new Bucket(limit.burst, now);
+                byCommand.put(command, bucket);
+            }
+            return bucket;
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updated;
+        private String[] lastArguments;
+        private List<String> lastResult;
+
+        private Bucket(double tokens, long updated) {
+            this.tokens = tokens;
+            this.updated = updated;
+        }
+
+        private boolean take(Limit limit, long now) {
+            tokens = Math.min(limit.burst, tokens + (now - updated) * limit.perNano);
+            updated = now;
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package xyz.dragin.subcommandlib.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies of one subcommand, identified by its path (e.g. "region set flag")
+ */
+public final class CommandMetrics {
+    private final String path;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder tabCompletions = new LongAdder();
+    private final LongAdder throttledTabCompletions = new LongAdder();
+    private final LongAdder executeAllocatedBytes = new LongAdder();
+    private final LongAdder tabCompleteAllocatedBytes = new LongAdder();
+    private final LatencyHistogram executeLatency = new LatencyHistogram();
+    private final LatencyHistogram tabCompleteLatency = new LatencyHistogram();
+
+    CommandMetrics(@NotNull String path) {
+        this.path = path;
+    }
+
+    /**
+     * Records an execution
+     * @param nanos How long executing took
+     * @param success False if the command couldn't be run by itself or threw an exception
+     * @param allocatedBytes How much memory was allocated, or a negative number if unknown
+     */
+    public void recordExecution(long nanos, boolean success, long allocatedBytes) {
+        executions.increment();
+        if (!success) failures.increment();
+        executeLatency.record(nanos);
+        if (allocatedBytes > 0) executeAllocatedBytes.add(allocatedBytes);
+    }
+
+    /**
+     * Records a tab completion
+     * @param nanos How long tab completing took
+     * @param allocatedBytes How much memory was allocated, or a negative number if unknown
+     */
+    public void recordTabComplete(long nanos, long allocatedBytes) {
+        tabCompletions.increment();
+        tabCompleteLatency.record(nanos);
+        if (allocatedBytes > 0) tabCompleteAllocatedBytes.add(allocatedBytes);
+    }
+
+    /**
+     * Records a tab completion that was answered without being computed, because the sender asked too often
+     */
+    public void recordThrottledTabComplete() {
+        throttledTabCompletions.increment();
+    }
+
+    /**
+     * Gets the path of the subcommand
+     * @return The names from the base command to the subcommand, separated by spaces
+     */
+    @NotNull public String getPath() { return path; }
+
+    /**
+     * Gets how many times the subcommand was executed
+     * @return The amount of executions
+     */
+    public long getExecutions() { return executions.sum(); }
+
+    /**
+     * Gets how many executions couldn't be run by themselves or threw an exception
+     * @return The amount of failed executions
+     */
+    public long getFailures() { return failures.sum(); }
+
+    /**
+     * Gets how many times the subcommand was tab completed
+     * @return The amount of tab completions
+     */
+    public long getTabCompletions() { return tabCompletions.sum(); }
+
+    /**
+     * Gets how many tab completions were answered by the CompletionThrottle instead, which aren't in getTabCompletions()
+     * @return The amount of throttled tab completions
+     */
+    public long getThrottledTabCompletions() { return throttledTabCompletions.sum(); }
+
+    /**
+     * Gets how much memory executions allocated in total, if allocation tracking was on
+     * @return The amount of bytes
+     */
+    public long getExecuteAllocatedBytes() { return executeAllocatedBytes.sum(); }
+
+    /**
+     * Gets how much memory tab completions allocated in total, if allocation tracking was on
+     * @return The amount of bytes
+     */
+    public long getTabCompleteAllocatedBytes() { return tabCompleteAllocatedBytes.sum(); }
+
+    /**
+     * Gets how long executions took
+     * @return The histogram of execution durations
+     */
+    @NotNull public LatencyHistogram getExecuteLatency() { return executeLatency; }
+
+    /**
+     * Gets how long tab completions took
+     * @return The histogram of tab completion durations
+     */
+    @NotNull public LatencyHistogram getTabCompleteLatency() { return tabCompleteLatency; }
+
+    /**
+     * Sets every counter and histogram back to 0
+     */
+    public void reset() {
+        executions.reset();
+        failures.reset();
+        tabCompletions.reset();
+        throttledTabCompletions.reset();
+        executeAllocatedBytes.reset();
+        tabCompleteAllocatedBytes.reset();
+        executeLatency.reset();
+        tabCompleteLatency.reset();
+    }
+}
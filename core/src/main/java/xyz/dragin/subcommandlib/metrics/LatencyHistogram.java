@@ -0,0 +1,135 @@
+package xyz.dragin.subcommandlib.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, for finding percentiles.
+ * Durations are counted in buckets that are 1/8th of a power of two wide, so percentiles are accurate to within about 12.5%.
+ * Recording never allocates and takes a few atomic increments.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a duration
+     * @param nanos The duration in nanoseconds; negative durations are counted as 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Copies the current counts, so percentiles can be found from a consistent view
+     * @return A snapshot of the histogram
+     */
+    @NotNull public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return new Snapshot(counts, total, sum.sum(), max.get());
+    }
+
+    /**
+     * Forgets every recorded duration
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + (int) ((value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    static long lowestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+    }
+
+    static long highestValueOf(int bucket) {
+        return bucket + 1 < BUCKETS ? lowestValueOf(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * The counts of a histogram at one point in time
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Gets the amount of recorded durations
+         * @return The count
+         */
+        public long getCount() { return count; }
+
+        /**
+         * Gets the total of all recorded durations
+         * @return The sum in nanoseconds
+         */
+        public long getSum() { return sum; }
+
+        /**
+         * Gets the longest recorded duration
+         * @return The maximum in nanoseconds
+         */
+        public long getMax() { return max; }
+
+        /**
+         * Gets the average recorded duration
+         * @return The mean in nanoseconds, or 0 if nothing was recorded
+         */
+        public double getMean() { return count == 0 ? 0 : (double) sum / count; }
+
+        /**
+         * Finds the duration that a certain fraction of recorded durations are at or below
+         * @param quantile The fraction, e.g. 0.99 for the 99th percentile
+         * @return The duration in nanoseconds (the middle of its bucket), or 0 if nothing was recorded
+         */
+        public long getPercentile(double quantile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    long low = lowestValueOf(i);
+                    return Math.min(max, low + (highestValueOf(i) - low) / 2);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package xyz.dragin.subcommandlib.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the metrics of every subcommand that has been executed or tab completed.
+ * Recording is cheap enough to leave on, but can be turned off completely with {@link #setEnabled(boolean)}.
+ * Tracking allocated memory is off by default, since it depends on the JVM and costs a little more.
+ * The JVM only measures allocations while a registry is tracking them with recording enabled, and is put back how it was after.
+ */
+public final class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+    private static int measuring = 0;
+    private static boolean measuredBefore;
+
+    private final Map<String, CommandMetrics> metrics = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+    private volatile boolean trackingAllocations = false;
+    private boolean measuringAllocations = false;
+
+    /**
+     * Whether anything is being recorded
+     * @return True unless turned off
+     */
+    public boolean isEnabled() { return enabled; }
+
+    /**
+     * Turns recording on or off. Metrics recorded so far are kept.
+     * @param enabled Whether to record metrics
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        measureAllocations(enabled && trackingAllocations);
+    }
+
+    /**
+     * Whether memory allocated by executions and tab completions is being tracked
+     * @return True if turned on and supported by the JVM
+     */
+    public boolean isTrackingAllocations() { return trackingAllocations; }
+
+    /**
+     * Turns tracking allocated memory on or off. Only works on JVMs that support measuring allocations per thread (e.g. HotSpot).
+     * @param tracking Whether to track allocated memory
+     * @return True if allocations are now being tracked as requested
+     */
+    public synchronized boolean setTrackingAllocations(boolean tracking) {
+        trackingAllocations = tracking && ALLOCATIONS != null;
+        if (!measureAllocations(enabled && trackingAllocations)) trackingAllocations = false;
+        return trackingAllocations == tracking;
+    }
+
+    /**
+     * Gets the metrics of a subcommand, creating them if needed
+     * @param path The names from the base command to the subcommand, separated by spaces
+     * @return The metrics of the subcommand
+     */
+    @NotNull public CommandMetrics get(@NotNull String path) {
+        CommandMetrics found = metrics.get(path);
+        return found != null ? found : metrics.computeIfAbsent(path, CommandMetrics::new);
+    }
+
+    /**
+     * Finds the metrics of a subcommand without creating them
+     * @param path The names from the base command to the subcommand, separated by spaces
+     * @return The metrics of the subcommand, or null if it hasn't been used yet
+     */
+    @Nullable public CommandMetrics find(@NotNull String path) {
+        return metrics.get(path);
+    }
+
+    /**
+     * Gets the metrics of every subcommand that's been used
+     * @return An unmodifiable copy, sorted by path
+     */
+    @NotNull public Map<String, CommandMetrics> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<>(metrics));
+    }
+
+    /**
+     * Forgets the metrics of every subcommand
+     */
+    public void reset() {
+        metrics.clear();
+    }
+
+    /**
+     * Gets the bytes allocated by the current thread so far, to find the difference after running something
+     * @return The allocated bytes, or -1 if allocations aren't being tracked
+     */
+    public long allocatedBytes() {
+        return trackingAllocations ? ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Exports every metric in the Prometheus text exposition format
+     * @return The exported metrics
+     */
+    @NotNull public String export() {
+        StringBuilder builder = new StringBuilder();
+        export(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Exports every metric in the Prometheus text exposition format
+     * @param output Where to write the exported metrics
+     */
+    public void export(@NotNull Appendable output) {
+        Map<String, CommandMetrics> all = getAll();
+        try {
+            counter(output, all, "subcommandlib_executions_total", "Times a subcommand was executed", CommandMetrics::getExecutions);
+            counter(output, all, "subcommandlib_failures_total", "Executions that couldn't be run or threw an exception", CommandMetrics::getFailures);
+            counter(output, all, "subcommandlib_tab_completions_total", "Times a subcommand was tab completed", CommandMetrics::getTabCompletions);
+            counter(output, all, "subcommandlib_tab_completions_throttled_total", "Tab completions answered without being computed because the sender asked too often", CommandMetrics::getThrottledTabCompletions);
+            summary(output, all, "subcommandlib_execute_seconds", "Time spent executing", false);
+            summary(output, all, "subcommandlib_tab_complete_seconds", "Time spent tab completing", true);
+            if (trackingAllocations) {
+                counter(output, all, "subcommandlib_execute_allocated_bytes_total", "Memory allocated while executing", CommandMetrics::getExecuteAllocatedBytes);
+                counter(output, all, "subcommandlib_tab_complete_allocated_bytes_total", "Memory allocated while tab completing", CommandMetrics::getTabCompleteAllocatedBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Counter {
+        long get(CommandMetrics metrics);
+    }
+
+    private static void counter(Appendable output, Map<String, CommandMetrics> all, String name, String help, Counter counter) throws IOException {
+        output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        output.append("# TYPE ").append(name).append(" counter\n");
+        for (CommandMetrics metrics : all.values()) {
+            output.append(name).append("{command=\"").append(escape(metrics.getPath())).append("\"} ")
+                    .append(Long.toString(counter.get(metrics))).append('\n');
+        }
+    }
+
+    private static void summary(Appendable output, Map<String, CommandMetrics> all, String name, String help, boolean tabComplete) throws IOException {
+        output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        output.append("# TYPE ").append(name).append(" summary\n");
+        for (CommandMetrics metrics : all.values()) {
+            LatencyHistogram.Snapshot snapshot = (tabComplete ? metrics.getTabCompleteLatency() : metrics.getExecuteLatency()).snapshot();
+            String label = "command=\"" + escape(metrics.getPath()) + "\"";
+            for (double quantile : QUANTILES) {
+                output.append(name).append('{').append(label).append(",quantile=\"").append(Double.toString(quantile)).append("\"} ")
+                        .append(Double.toString(snapshot.getPercentile(quantile) / 1e9)).append('\n');
+            }
+            output.append(name).append("_sum{").append(label).append("} ").append(Double.toString(snapshot.getSum() / 1e9)).append('\n');
+            output.append(name).append("_count{").append(label).append("} ").append(Long.toString(snapshot.getCount())).append('\n');
+        }
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // Switches the JVM's measuring on while any registry needs it, then back to how it was before the first one did
+    private boolean measureAllocations(boolean measure) {
+        if (measure == measuringAllocations) return true;
+        synchronized (MetricsRegistry.class) {
+            if (measure && measuring == 0) {
+                try {
+                    measuredBefore = ALLOCATIONS.isThreadAllocatedMemoryEnabled();
+                    if (!measuredBefore) ALLOCATIONS.setThreadAllocatedMemoryEnabled(true);
+                } catch (UnsupportedOperationException | SecurityException e) {
+                    return false;
+                }
+            }
+            measuring += measure ? 1 : -1;
+            if (!measure && measuring == 0 && !measuredBefore) {
+                try {
+                    ALLOCATIONS.setThreadAllocatedMemoryEnabled(false);
+                } catch (UnsupportedOperationException | SecurityException ignored) {
+                    // It was allowed to be switched on, so this shouldn't happen
+                }
+            }
+        }
+        measuringAllocations = measure;
+        return true;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+                return (com.sun.management.ThreadMXBean) bean;
+            }
+        } catch (LinkageError | UnsupportedOperationException | SecurityException ignored) {
+            // Not a HotSpot-like JVM
+        }
+        return null;
+    }
+}
@@ -45,6 +45,11 @@ public abstract class CommandFlag implements Cloneable {
         else return false;
     }
 
+    @Override
+    public int hashCode() {
+        return flag.hashCode();
+    }
+
     @Override
     public CommandFlag clone() {
         try {
@@ -7,7 +7,10 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Represents a command option (e.g. -o option) with a parameter
+ * Represents a command option (e.g. -o option) with a parameter.
+ * The CommandOptions returned by getAllowedFlags() are never changed by parsing; parameters are stored in the parsed arguments,
+ * which give out a {@link ParsedOption} (a separate value, not a CommandOption). Only the List of Eithers used by the original Subcommand methods
+ * has clones of the CommandOption with their parameter set, so existing code that clones and changes them keeps working.
  * @see CommandFlag
  */
 public abstract class CommandOption extends CommandFlag {
@@ -22,7 +25,10 @@ public abstract class CommandOption extends CommandFlag {
     /**
      * Sets the parameter of the flag
      * @param option The new parameter
+     * @deprecated Parameters are stored in the parsed arguments (see {@link ParsedOption}), so allowed flags are never changed while parsing.
+     * Changing a CommandOption that's shared between commands isn't thread safe.
      */
+    @Deprecated
     public void setOption(String option) { this.option = option; }
 
     /**
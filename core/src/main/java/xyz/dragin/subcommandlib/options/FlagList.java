@@ -0,0 +1,85 @@
+package xyz.dragin.subcommandlib.options;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A List of given flags that can find a flag by its name without searching through the whole List.
+ * The names are only indexed the first time a flag is looked up, and again after the List changes.
+ * Used by SubcommandUtils.findFromSimple() to find flags in parsed arguments.
+ */
+public final class FlagList extends AbstractList<CommandFlag> implements RandomAccess {
+    private final List<CommandFlag> flags;
+    private Map<String, CommandFlag> byName;
+    private int indexedModCount;
+
+    /**
+     * Initialization constructor for an empty List
+     */
+    public FlagList() {
+        this(10);
+    }
+
+    /**
+     * Initialization constructor for an empty List
+     * @param capacity The amount of flags to make room for
+     */
+    public FlagList(int capacity) {
+        flags = new ArrayList<>(capacity);
+    }
+
+    /**
+     * Finds the first flag with the same name as another
+     * @param simple The flag to look for, e.g. from CommandFlag.simple()
+     * @return The found CommandFlag or null
+     */
+    @Nullable public CommandFlag find(@NotNull CommandFlag simple) {
+        if (byName == null || indexedModCount != modCount) {
+            Map<String, CommandFlag> index = new HashMap<>(flags.size() * 2);
+            for (CommandFlag flag : flags) index.putIfAbsent(flag.getFlag(), flag);
+            byName = index;
+            indexedModCount = modCount;
+        }
+        return byName.get(simple.getFlag());
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof CommandFlag && find((CommandFlag) o) != null;
+    }
+
+    @Override
+    public CommandFlag get(int index) {
+        return flags.get(index);
+    }
+
+    @Override
+    public CommandFlag set(int index, CommandFlag flag) {
+        modCount++;
+        return flags.set(index, flag);
+    }
+
+    @Override
+    public void add(int index, CommandFlag flag) {
+        modCount++;
+        flags.add(index, flag);
+    }
+
+    @Override
+    public CommandFlag remove(int index) {
+        modCount++;
+        return flags.remove(index);
+    }
+
+    @Override
+    public int size() {
+        return flags.size();
+    }
+}
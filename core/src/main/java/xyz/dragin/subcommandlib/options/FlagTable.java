@@ -0,0 +1,116 @@
+package xyz.dragin.subcommandlib.options;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A lookup table of allowed flags for parsing, built once from the result of getAllowedFlags().
+ * Single character flags are found by indexing an array with the character and longer flags by a hash lookup of the whole argument,
+ * so looking up a flag doesn't depend on how many flags are allowed and doesn't create any Strings.
+ * Return {@link #getFlags()} of a table kept in a constant from getAllowedFlags() and the table is reused instead of built for every command.
+ * @see xyz.dragin.subcommandlib.util.TabUtils#parseFlags(List, FlagTable)
+ */
+public final class FlagTable {
+    private static final int DIRECT_SIZE = 128;
+    private static final FlagTable EMPTY = new FlagTable(Collections.emptyList());
+
+    private final List<CommandFlag> flags;
+    private final CommandFlag[] shortFlags = new CommandFlag[DIRECT_SIZE];
+    private final Map<Character, CommandFlag> otherShortFlags = new HashMap<>(0);
+    private final Map<String, CommandFlag> longFlags;
+
+    private FlagTable(List<CommandFlag> flags) {
+        this.flags = new TableList(this, flags.toArray(new CommandFlag[0]));
+        this.longFlags = new HashMap<>(flags.size() * 2);
+        // Later flags replace earlier ones with the same name
+        for (CommandFlag flag : flags) {
+            String name = flag.getFlag();
+            if (name.length() == 1) {
+                char c = name.charAt(0);
+                if (c < DIRECT_SIZE) shortFlags[c] = flag;
+                else otherShortFlags.put(c, flag);
+            }
+            String written = flag.toString();
+            if (written.startsWith("--")) longFlags.put(written, flag);
+        }
+    }
+
+    /**
+     * Builds a table from a List of allowed flags
+     * @param flags The allowed flags, usually from getAllowedFlags()
+     * @return A table containing all the flags, or the table itself if the List came from {@link #getFlags()}
+     */
+    @NotNull public static FlagTable of(@NotNull List<CommandFlag> flags) {
+        if (flags instanceof TableList) return ((TableList) flags).table;
+        return flags.isEmpty() ? EMPTY : new FlagTable(flags);
+    }
+
+    /**
+     * Gets a table without any flags
+     * @return An empty table
+     */
+    @NotNull public static FlagTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Finds a single character flag (e.g. the f in -f or -zxvf)
+     * @param c The character of the flag
+     * @return The flag, or null if it isn't allowed
+     */
+    @Nullable public CommandFlag getShort(char c) {
+        return c < DIRECT_SIZE ? shortFlags[c] : otherShortFlags.get(c);
+    }
+
+    /**
+     * Finds a flag by a whole argument starting with two dashes (e.g. --name)
+     * @param argument The argument as typed, including the dashes
+     * @return The flag, or null if it isn't allowed
+     */
+    @Nullable public CommandFlag getLong(@NotNull String argument) {
+        return longFlags.get(argument);
+    }
+
+    /**
+     * Gets all flags in the table
+     * @return An unmodifiable List of the flags the table was built from, which builds this same table when passed to {@link #of(List)}
+     */
+    @NotNull public List<CommandFlag> getFlags() {
+        return flags;
+    }
+
+    /**
+     * Whether the table has no flags
+     * @return True if no flags are allowed
+     */
+    public boolean isEmpty() {
+        return flags.isEmpty();
+    }
+
+    private static final class TableList extends AbstractList<CommandFlag> implements RandomAccess {
+        private final FlagTable table;
+        private final CommandFlag[] flags;
+
+        private TableList(FlagTable table, CommandFlag[] flags) {
+            this.table = table;
+            this.flags = flags;
+        }
+
+        @Override
+        public CommandFlag get(int index) {
+            return flags[index];
+        }
+
+        @Override
+        public int size() {
+            return flags.length;
+        }
+    }
+}
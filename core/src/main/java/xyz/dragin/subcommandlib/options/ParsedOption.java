@@ -0,0 +1,63 @@
+package xyz.dragin.subcommandlib.options;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * A CommandOption as it was given to a command, along with its parameter.
+ * The parameter is stored here instead of on the CommandOption returned by getAllowedFlags(),
+ * so the same allowed flags can be parsed by any amount of threads at once without being copied.
+ * A ParsedOption can't be changed after it's created. It's only given out by {@link xyz.dragin.subcommandlib.util.ParsedArguments#getParsedOption(int)};
+ * the deprecated List of Eithers used by the original Subcommand methods has clones of the allowed CommandOption instead.
+ */
+public final class ParsedOption {
+    private final CommandOption definition;
+    private final String option;
+
+    /**
+     * Initialization constructor
+     * @param definition The allowed CommandOption that was given
+     * @param option The parameter given to it, or null if it hasn't been given yet
+     */
+    public ParsedOption(@NotNull CommandOption definition, @Nullable String option) {
+        this.definition = definition;
+        this.option = option;
+    }
+
+    /**
+     * Gets the allowed CommandOption (from getAllowedFlags()) that was given
+     * @return The CommandOption this was parsed from
+     */
+    @NotNull public CommandOption getDefinition() { return definition; }
+
+    /**
+     * Gets the name of the option, not including any dashes
+     * @return The name of the option
+     */
+    @NotNull public String getFlag() { return definition.getFlag(); }
+
+    /**
+     * Gets the parameter given to the option
+     * @return The parameter, or null if it hasn't been given yet
+     */
+    @Nullable public String getOption() { return option; }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ParsedOption)) return false;
+        ParsedOption other = (ParsedOption) obj;
+        return definition.equals(other.definition) && Objects.equals(option, other.option);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * definition.hashCode() + Objects.hashCode(option);
+    }
+
+    @Override
+    public String toString() {
+        return option == null ? definition.toString() : definition + " " + option;
+    }
+}
@@ -0,0 +1,134 @@
+package xyz.dragin.subcommandlib.recording;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the files written by a {@link TrafficRecorder}.
+ * <p>
+ * Each file starts with a header (the magic number "SCTR", a version byte and the time the file was started),
+ * followed by records of a kind byte, the time since the previous record, the sender, base command, path, arguments and duration.
+ * Numbers are variable length, and every String is written out once per file, then referred to by its index,
+ * so repeated senders, paths and arguments only take a byte or two. Every file can be read by itself.
+ */
+public final class TrafficLog {
+    static final int MAGIC = 0x53435452;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 1 + 8;
+    static final String PREFIX = "traffic-";
+    static final String EXTENSION = ".sctr";
+    // Written before a String: a new String that gets the next index, a String that doesn't (the table is full), or an index + 2
+    static final int NEW_STRING = 0;
+    static final int INLINE_STRING = 1;
+    static final int MAX_STRINGS = 1 << 16;
+
+    private TrafficLog() {}
+
+    /**
+     * Finds every log file in a directory
+     * @param directory The directory given to the TrafficRecorder
+     * @return The files, oldest first
+     * @throws IOException If the directory can't be read
+     */
+    @NotNull public static List<Path> files(@NotNull Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + EXTENSION)) {
+            for (Path file : stream) files.add(file);
+        }
+        // Names are the zero-padded start time and a sequence number, so they sort by age
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Reads every record in a directory
+     * @param directory The directory given to the TrafficRecorder
+     * @return The records of every file, oldest first
+     * @throws IOException If a file can't be read or isn't a traffic log
+     */
+    @NotNull public static List<TrafficRecord> readAll(@NotNull Path directory) throws IOException {
+        List<TrafficRecord> records = new ArrayList<>();
+        for (Path file : files(directory)) records.addAll(read(file));
+        return records;
+    }
+
+    /**
+     * Reads every record in a file. A record cut off at the end (e.g. the server crashed while writing it) is ignored.
+     * @param file The log file
+     * @return The records, in the order they were recorded
+     * @throws IOException If the file can't be read or isn't a traffic log
+     */
+    @NotNull public static List<TrafficRecord> read(@NotNull Path file) throws IOException {
+        List<TrafficRecord> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException(file + " isn't a traffic log");
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException(file + " has unsupported version " + version);
+            long time = in.readLong();
+            List<String> strings = new ArrayList<>();
+            TrafficRecord.Kind[] kinds = TrafficRecord.Kind.values();
+
+            while (true) {
+                int kind = in.read();
+                if (kind == -1) break;
+                try {
+                    if (kind >= kinds.length) throw new IOException(file + " has an unknown record kind " + kind);
+                    time += unzigzag(readLong(in));
+                    String sender = readString(in, strings);
+                    String command = readString(in, strings);
+                    String path = readString(in, strings);
+                    String[] arguments = new String[readInt(in)];
+                    for (int i = 0; i < arguments.length; i++) arguments[i] = readString(in, strings);
+                    records.add(new TrafficRecord(kinds[kind], time, sender, command, path, arguments, readLong(in)));
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+        return records;
+    }
+
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int code = readInt(in);
+        if (code >= 2) {
+            if (code - 2 >= strings.size()) throw new IOException("Unknown String index " + (code - 2));
+            return strings.get(code - 2);
+        }
+        byte[] bytes = new byte[readInt(in)];
+        in.readFully(bytes);
+        String string = new String(bytes, StandardCharsets.UTF_8);
+        if (code == NEW_STRING) strings.add(string);
+        return string;
+    }
+
+    private static int readInt(DataInputStream in) throws IOException {
+        long value = readLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) throw new IOException("Invalid length " + value);
+        return (int) value;
+    }
+
+    private static long readLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed number");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
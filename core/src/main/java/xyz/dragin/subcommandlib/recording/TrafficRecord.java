@@ -0,0 +1,107 @@
+package xyz.dragin.subcommandlib.recording;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One recorded execution or tab completion
+ * @see TrafficRecorder
+ * @see TrafficLog
+ */
+public final class TrafficRecord {
+    /**
+     * What was recorded
+     */
+    public enum Kind {
+        /** A command was executed */
+        EXECUTE,
+        /** A command was tab completed */
+        TAB_COMPLETE
+    }
+
+    private final Kind kind;
+    private final long time;
+    private final String sender;
+    private final String command;
+    private final String path;
+    private final String[] arguments;
+    private final long nanos;
+
+    /**
+     * Initialization constructor
+     * @param kind Whether the command was executed or tab completed
+     * @param time When the command arrived, in milliseconds since the epoch
+     * @param sender Identifies the sender, e.g. a UUID or the console's name
+     * @param command The name of the base command
+     * @param path The path of the subcommand it resolved to, e.g. "region set flag"
+     * @param arguments The arguments after the base command's name as they were given, which is kept rather than copied
+     * @param nanos How long the dispatch took, in nanoseconds
+     */
+    public TrafficRecord(@NotNull Kind kind, long time, @NotNull String sender, @NotNull String command, @NotNull String path, @NotNull String[] arguments, long nanos) {
+        this.kind = kind;
+        this.time = time;
+        this.sender = sender;
+        this.command = command;
+        this.path = path;
+        this.arguments = arguments;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Gets whether the command was executed or tab completed
+     * @return The kind of record
+     */
+    @NotNull public Kind getKind() { return kind; }
+
+    /**
+     * Gets when the command arrived
+     * @return The time in milliseconds since the epoch
+     */
+    public long getTime() { return time; }
+
+    /**
+     * Gets what identifies the sender
+     * @return The sender's UUID, or their name if they aren't an entity
+     */
+    @NotNull public String getSender() { return sender; }
+
+    /**
+     * Gets the name of the base command
+     * @return The base command
+     */
+    @NotNull public String getCommand() { return command; }
+
+    /**
+     * Gets the path of the subcommand the arguments resolved to
+     * @return The path, e.g. "region set flag"
+     */
+    @NotNull public String getPath() { return path; }
+
+    /**
+     * Gets the arguments after the base command's name as they were given; for a tab completion, the last one was being typed
+     * @return An unmodifiable List of arguments
+     */
+    @NotNull public List<String> getArguments() { return Collections.unmodifiableList(Arrays.asList(arguments)); }
+
+    /**
+     * Gets the arguments as an array, e.g. for replaying them
+     * @return A copy of the arguments
+     */
+    @NotNull public String[] getArgumentArray() { return arguments.clone(); }
+
+    /**
+     * Gets how long the dispatch took when it was recorded
+     * @return The time in nanoseconds
+     */
+    public long getNanos() { return nanos; }
+
+    String[] arguments() { return arguments; }
+
+    @Override
+    public String toString() {
+        return "TrafficRecord{" + kind + " /" + command + (arguments.length == 0 ? "" : " " + String.join(" ", arguments)) + " by " + sender + "}";
+    }
+}
@@ -0,0 +1,282 @@
+package xyz.dragin.subcommandlib.recording;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records executions and tab completions to compact binary log files, e.g. to replay production traffic in a load test.
+ * Recording only puts the record in a bounded queue; a background thread encodes and writes it with buffered I/O,
+ * so the thread dispatching commands never waits for the disk. If the writer falls behind and the queue is full, records are dropped and counted.
+ * A new file is started whenever the current one would grow past a size, and the oldest files beyond a count are deleted.
+ * @see TrafficLog
+ */
+public final class TrafficRecorder implements Closeable {
+    private static final TrafficRecord END = new TrafficRecord(TrafficRecord.Kind.EXECUTE, 0, "", "", "", new String[0], 0);
+    private static final long FLUSH_MILLIS = 1000;
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final BlockingQueue<TrafficRecord> queue;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    // Only used by the writer thread, after the first file is opened
+    private OutputStream out;
+    private long fileBytes;
+    private long previousTime;
+    private int sequence;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private byte[] buffer = new byte[256];
+    private int size;
+
+    /**
+     * Initialization constructor with room for 65536 waiting records
+     * @param directory The directory to write log files to, which is created if needed
+     * @param maxFileBytes The size in bytes a file can grow to before a new one is started
+     * @param maxFiles The amount of files to keep, deleting the oldest ones; 0 or less keeps every file
+     * @throws IOException If the directory or the first file can't be created
+     */
+    public TrafficRecorder(@NotNull Path directory, long maxFileBytes, int maxFiles) throws IOException {
+        this(directory, maxFileBytes, maxFiles, 1 << 16);
+    }
+
+    /**
+     * Initialization constructor
+     * @param directory The directory to write log files to, which is created if needed
+     * @param maxFileBytes The size in bytes a file can grow to before a new one is started
+     * @param maxFiles The amount of files to keep, deleting the oldest ones; 0 or less keeps every file
+     * @param queueCapacity The most records that can wait to be written before new ones are dropped
+     * @throws IOException If the directory or the first file can't be created
+     */
+    public TrafficRecorder(@NotNull Path directory, long maxFileBytes, int maxFiles, int queueCapacity) throws IOException {
+        if (maxFileBytes <= TrafficLog.HEADER_BYTES) throw new IllegalArgumentException("maxFileBytes is too small for a file header");
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Files.createDirectories(directory);
+        // Opened here so a bad directory is reported right away
+        open();
+        writer = new Thread(this::run, "SubcommandLib Traffic Recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records an execution or tab completion that arrived just now, without waiting for it to be written
+     * @param kind Whether the command was executed or tab completed
+     * @param sender Identifies the sender, e.g. a UUID or the console's name
+     * @param command The name of the base command
+     * @param path The path of the subcommand it resolved to
+     * @param arguments The arguments after the base command's name as they were given, which must not be changed afterwards
+     * @param nanos How long the dispatch took, in nanoseconds
+     * @return False if the record was dropped, because the recorder is closed or the writer has fallen behind
+     */
+    public boolean record(@NotNull TrafficRecord.Kind kind, @NotNull String sender, @NotNull String command, @NotNull String path, @NotNull String[] arguments, long nanos) {
+        return record(new TrafficRecord(kind, System.currentTimeMillis(), sender, command, path, arguments, nanos));
+    }
+
+    /**
+     * Records an execution or tab completion without waiting for it to be written
+     * @param record The record
+     * @return False if the record was dropped, because the recorder is closed or the writer has fallen behind
+     */
+    public boolean record(@NotNull TrafficRecord record) {
+        if (closed || !queue.offer(record)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the amount of records written so far
+     * @return The amount of records
+     */
+    public long getRecorded() { return recorded.sum(); }
+
+    /**
+     * Gets the amount of records dropped because the writer fell behind or the recorder was closed
+     * @return The amount of records
+     */
+    public long getDropped() { return dropped.sum(); }
+
+    /**
+     * Gets the directory log files are written to
+     * @return The directory
+     */
+    @NotNull public Path getDirectory() { return directory; }
+
+    /**
+     * Gets why the recorder stopped writing, if it couldn't write to its file
+     * @return The exception, or null if nothing went wrong
+     */
+    @Nullable public IOException getFailure() { return failure; }
+
+    /**
+     * Whether the recorder has been closed or has stopped because of an error
+     * @return True if new records are dropped
+     */
+    public boolean isClosed() { return closed; }
+
+    /**
+     * Stops recording, waits for every queued record to be written, then closes the current file
+     * @throws IOException If writing failed at any point
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                queue.put(END);
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Anything that got past the closed check after the end was queued
+            dropped.add(queue.size());
+            queue.clear();
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                TrafficRecord record = queue.poll(FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+                // Flushed whenever nothing is waiting, so an idle server's log is up to date within a second
+                if (record == null) {
+                    out.flush();
+                    continue;
+                }
+                if (record == END) break;
+                write(record);
+                recorded.increment();
+                if (queue.isEmpty()) out.flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+            closed = true;
+            dropped.add(queue.size());
+            queue.clear();
+        } catch (InterruptedException e) {
+            closed = true;
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+    }
+
+    private void write(TrafficRecord record) throws IOException {
+        encode(record);
+        if (fileBytes + size > maxFileBytes && fileBytes > TrafficLog.HEADER_BYTES) {
+            open();
+            // Encoded again, since the new file has its own Strings and start time
+            encode(record);
+        }
+        out.write(buffer, 0, size);
+        fileBytes += size;
+        previousTime = record.getTime();
+    }
+
+    private void open() throws IOException {
+        if (out != null) out.close();
+        long now = System.currentTimeMillis();
+        Path file = directory.resolve(String.format("%s%013d-%04d%s", TrafficLog.PREFIX, now, sequence++ % 10000, TrafficLog.EXTENSION));
+        out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        size = 0;
+        writeInt(TrafficLog.MAGIC);
+        writeByte(TrafficLog.VERSION);
+        writeInt((int) (now >>> 32));
+        writeInt((int) now);
+        out.write(buffer, 0, size);
+        fileBytes = size;
+        previousTime = now;
+        strings.clear();
+
+        if (maxFiles > 0) {
+            List<Path> files = TrafficLog.files(directory);
+            for (int i = 0; i < files.size() - maxFiles; i++) Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void encode(TrafficRecord record) {
+        size = 0;
+        writeByte(record.getKind().ordinal());
+        long delta = record.getTime() - previousTime;
+        writeLong((delta << 1) ^ (delta >> 63));
+        writeString(record.getSender());
+        writeString(record.getCommand());
+        writeString(record.getPath());
+        String[] arguments = record.arguments();
+        writeLong(arguments.length);
+        for (String argument : arguments) writeString(argument);
+        writeLong(Math.max(0, record.getNanos()));
+    }
+
+    private void writeString(String string) {
+        Integer index = strings.get(string);
+        if (index != null) {
+            writeLong(index + 2L);
+            return;
+        }
+        if (strings.size() < TrafficLog.MAX_STRINGS) {
+            strings.put(string, strings.size());
+            writeByte(TrafficLog.NEW_STRING);
+        } else writeByte(TrafficLog.INLINE_STRING);
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeLong(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void writeLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensure(4);
+        buffer[size++] = (byte) (value >>> 24);
+        buffer[size++] = (byte) (value >>> 16);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensure(int bytes) {
+        if (size + bytes > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+    }
+}
@@ -0,0 +1,57 @@
+package xyz.dragin.subcommandlib.task;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Work that's split into small steps, so it can be spread over several ticks instead of freezing one.
+ * Steps are run one at a time by a {@link TaskScheduler}, on the thread calling {@link TaskScheduler#tick()} (the main thread for Bukkit).
+ * @see xyz.dragin.subcommandlib.TaskSubcommand
+ */
+@FunctionalInterface
+public interface CommandTask {
+    /**
+     * Does the next small piece of work
+     * @return True if there's more work to do, false once the task is finished
+     */
+    boolean step();
+
+    /**
+     * Gets how much of the work is done, for progress reports
+     * @return A number from 0 to 1, or NaN if it isn't known
+     */
+    default double getProgress() {
+        return Double.NaN;
+    }
+
+    /**
+     * Creates a task that does something to each item of a collection, one item per step
+     * @param items The items
+     * @param action What to do to each item
+     * @param <T> The type of the items
+     * @return A task reporting how many of the items are done as its progress
+     */
+    @NotNull static <T> CommandTask forEach(@NotNull Collection<? extends T> items, @NotNull Consumer<? super T> action) {
+        Iterator<? extends T> iterator = items.iterator();
+        int total = items.size();
+        return new CommandTask() {
+            private int done;
+
+            @Override
+            public boolean step() {
+                if (!iterator.hasNext()) return false;
+                action.accept(iterator.next());
+                done++;
+                return iterator.hasNext();
+            }
+
+            @Override
+            public double getProgress() {
+                return total == 0 ? 1 : (double) done / total;
+            }
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package xyz.dragin.subcommandlib.task;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A CommandTask that was submitted to a {@link TaskScheduler}, which can be cancelled or waited on
+ */
+public final class TaskHandle {
+    private final Object owner;
+    private final CommandTask task;
+    private final Consumer<TaskHandle> progress;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile long steps;
+    long lastReport;
+
+    TaskHandle(Object owner, CommandTask task, @Nullable Consumer<TaskHandle> progress, long now) {
+        this.owner = owner;
+        this.task = task;
+        this.progress = progress;
+        this.lastReport = now;
+    }
+
+    /**
+     * Gets who the task was submitted for, e.g. the key of a sender
+     * @return The owner
+     */
+    @NotNull public Object getOwner() { return owner; }
+
+    /**
+     * Gets the submitted task
+     * @return The task
+     */
+    @NotNull public CommandTask getTask() { return task; }
+
+    /**
+     * Gets how many steps of the task have been run
+     * @return The amount of steps
+     */
+    public long getSteps() { return steps; }
+
+    /**
+     * Gets how much of the task is done
+     * @return A number from 0 to 1, or NaN if it isn't known
+     */
+    public double getProgress() {
+        return isDone() && !isCancelled() ? 1 : task.getProgress();
+    }
+
+    /**
+     * Whether the task has finished, failed or was cancelled
+     * @return True if no more steps will be run
+     */
+    public boolean isDone() { return completion.isDone(); }
+
+    /**
+     * Whether the task was cancelled before it finished
+     * @return True if it was cancelled
+     */
+    public boolean isCancelled() { return completion.isCancelled(); }
+
+    /**
+     * Stops the task before its next step. A step that's already running isn't interrupted.
+     * @return True if the task was cancelled, false if it was already done
+     */
+    public boolean cancel() {
+        return completion.cancel(false);
+    }
+
+    /**
+     * Gets a future that completes once the task finishes, completes exceptionally if a step throws, and is cancelled if the task is
+     * @return The completion of the task
+     */
+    @NotNull public CompletableFuture<Void> getCompletion() { return completion; }
+
+    /**
+     * Runs the next step
+     * @return True if there are more steps to run
+     */
+    boolean step() {
+        if (completion.isDone()) return false;
+        boolean more;
+        try {
+            more = task.step();
+        } catch (Throwable t) {
+            completion.completeExceptionally(t);
+            return false;
+        } finally {
+            steps++;
+        }
+        if (!more) completion.complete(null);
+        return more;
+    }
+
+    void report(long now) {
+        lastReport = now;
+        if (progress == null) return;
+        try {
+            progress.accept(this);
+        } catch (RuntimeException ignored) {
+            // A progress report that fails (e.g. the task's getProgress() throwing) doesn't stop the task
+        }
+    }
+}
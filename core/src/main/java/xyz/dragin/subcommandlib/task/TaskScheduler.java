@@ -0,0 +1,207 @@
+package xyz.dragin.subcommandlib.task;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs the steps of CommandTasks a little at a time, within a time budget each tick.
+ * Owners (e.g. senders) take turns running one step each, and each owner's tasks take turns too,
+ * so one owner with a lot of work can't hold back everyone else.
+ * The scheduler doesn't depend on Bukkit; something has to call {@link #tick()} once per tick, e.g. a repeating Bukkit task,
+ * or a test with a simulated clock.
+ * Tasks can be submitted and cancelled from any thread, but steps are only run by tick(), which must only be called by one thread at a time.
+ */
+public final class TaskScheduler {
+    private final long budgetNanos;
+    private final long progressIntervalNanos;
+    private final LongSupplier clock;
+    private final Deque<Owner> queue = new ArrayDeque<>();
+    private final Map<Object, Owner> owners = new HashMap<>();
+    private TaskHandle current;
+    private int running;
+
+    /**
+     * Initialization constructor
+     * @param budgetMillis How long steps can run for each tick, across all tasks; at least one step is always run
+     * @param progressIntervalMillis How often to report the progress of a task, or 0 to never report it
+     */
+    public TaskScheduler(long budgetMillis, long progressIntervalMillis) {
+        this(budgetMillis, progressIntervalMillis, System::nanoTime);
+    }
+
+    /**
+     * Initialization constructor with a custom clock, e.g. for testing
+     * @param budgetMillis How long steps can run for each tick, across all tasks; at least one step is always run
+     * @param progressIntervalMillis How often to report the progress of a task, or 0 to never report it
+     * @param nanoClock The current time in nanoseconds
+     */
+    public TaskScheduler(long budgetMillis, long progressIntervalMillis, @NotNull LongSupplier nanoClock) {
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.progressIntervalNanos = progressIntervalMillis * 1_000_000;
+        this.clock = nanoClock;
+    }
+
+    /**
+     * Submits a task, whose first step runs on the next tick
+     * @param owner Who the task is for (compared with equals), e.g. the key of a sender
+     * @param task The task
+     * @param progress Called with the task's handle every progress interval while it's running, or null; the task keeps running if it throws
+     * @return A handle for cancelling the task or waiting for it to finish
+     */
+    @NotNull public TaskHandle submit(@NotNull Object owner, @NotNull CommandTask task, @Nullable Consumer<TaskHandle> progress) {
+        TaskHandle handle = new TaskHandle(owner, task, progress, clock.getAsLong());
+        synchronized (queue) {
+            Owner entry = owners.get(owner);
+            if (entry == null) {
+                entry = new Owner(owner);
+                owners.put(owner, entry);
+                queue.addLast(entry);
+            }
+            entry.tasks.addLast(handle);
+            running++;
+        }
+        return handle;
+    }
+
+    /**
+     * Runs steps of the submitted tasks until the budget for this tick is used up or there's nothing left to run
+     * @return The amount of steps run
+     */
+    public int tick() {
+        long start = clock.getAsLong();
+        int steps = 0;
+        while (true) {
+            TaskHandle handle;
+            synchronized (queue) {
+                handle = next();
+            }
+            if (handle == null) break;
+
+            boolean more = handle.step();
+            steps++;
+            long now = clock.getAsLong();
+            try {
+                if (more && progressIntervalNanos > 0 && now - handle.lastReport >= progressIntervalNanos) handle.report(now);
+            } finally {
+                synchronized (queue) {
+                    requeue(handle, more);
+                }
+            }
+            if (now - start >= budgetNanos) break;
+        }
+        return steps;
+    }
+
+    /**
+     * Cancels every task of an owner
+     * @param owner The owner, e.g. the key of a sender
+     * @return The amount of tasks cancelled, not counting ones that were already done
+     */
+    public int cancel(@NotNull Object owner) {
+        synchronized (queue) {
+            Owner entry = owners.get(owner);
+            if (entry == null) return 0;
+            int cancelled = 0;
+            for (TaskHandle handle : entry.tasks) if (handle.cancel()) cancelled++;
+            if (current != null && current.getOwner().equals(owner) && current.cancel()) cancelled++;
+            return cancelled;
+        }
+    }
+
+    /**
+     * Cancels every task
+     */
+    public void cancelAll() {
+        synchronized (queue) {
+            for (Owner entry : queue) entry.tasks.forEach(TaskHandle::cancel);
+            if (current != null) current.cancel();
+        }
+    }
+
+    /**
+     * Gets the amount of tasks that haven't finished yet, including cancelled ones that haven't been removed yet
+     * @return The amount of tasks
+     */
+    public int getRunning() {
+        synchronized (queue) {
+            return running;
+        }
+    }
+
+    /**
+     * Gets the amount of tasks of an owner that haven't finished yet
+     * @param owner The owner, e.g. the key of a sender
+     * @return The amount of tasks
+     */
+    public int getRunning(@NotNull Object owner) {
+        synchronized (queue) {
+            Owner entry = owners.get(owner);
+            if (entry == null) return 0;
+            return entry.tasks.size() + (current != null && current.getOwner().equals(owner) ? 1 : 0);
+        }
+    }
+
+    /**
+     * Gets how long steps can run for each tick
+     * @return The budget in milliseconds
+     */
+    public long getBudgetMillis() { return budgetNanos / 1_000_000; }
+
+    /**
+     * Gets how often the progress of a task is reported
+     * @return The interval in milliseconds, or 0 if progress is never reported
+     */
+    public long getProgressIntervalMillis() { return progressIntervalNanos / 1_000_000; }
+
+    /**
+     * Takes the next task to run a step of, from the owner whose turn it is
+     * @return The task, or null if there are none
+     */
+    private TaskHandle next() {
+        while (!queue.isEmpty()) {
+            Owner entry = queue.peekFirst();
+            TaskHandle handle = entry.tasks.pollFirst();
+            if (handle == null) {
+                queue.pollFirst();
+                owners.remove(entry.key);
+            } else if (handle.isDone()) {
+                // Cancelled while waiting for its turn
+                running--;
+            } else {
+                current = handle;
+                return handle;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gives the turn to the next owner, and puts the task back at the end of its owner's tasks if it isn't done
+     * @param handle The task that just ran a step
+     * @param more Whether the task has more steps
+     */
+    private void requeue(TaskHandle handle, boolean more) {
+        current = null;
+        Owner entry = queue.pollFirst();
+        if (more && !handle.isDone()) entry.tasks.addLast(handle);
+        else running--;
+        if (entry.tasks.isEmpty()) owners.remove(entry.key);
+        else queue.addLast(entry);
+    }
+
+    private static final class Owner {
+        private final Object key;
+        private final Deque<TaskHandle> tasks = new ArrayDeque<>();
+
+        private Owner(Object key) {
+            this.key = key;
+        }
+    }
+}
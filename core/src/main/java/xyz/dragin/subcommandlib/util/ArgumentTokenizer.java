@@ -0,0 +1,186 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a command into arguments like a shell does, so "this is one argument" (or 'this') is a single argument.
+ * A quote only opens at the start of an argument, so one inside a word (e.g. it's) is a normal character,
+ * and when executing, a quote that's never closed is a normal character too instead of taking the rest of the command.
+ * A backslash escapes the next character outside of quotes, and a double quote or backslash inside double quotes.
+ * The first unquoted -- ends the flags: it's removed, and every argument after it is a normal argument even if it starts with a dash.
+ * Arguments are separated by spaces only, like Bukkit splits them.
+ * The command is read once from start to end, and arguments without quotes or escapes are used as they are instead of being copied.
+ */
+public final class ArgumentTokenizer {
+    private static final String END_OF_FLAGS = "--";
+
+    private ArgumentTokenizer() {}
+
+    /**
+     * Tokenizes arguments that were already split on spaces, e.g. by Bukkit.
+     * If none of them have quotes or escapes, they're used as they are.
+     * Empty arguments (from repeated spaces) are kept, like Bukkit passes them.
+     * @param arguments The space separated arguments
+     * @param typing Whether the final argument is still being typed (when tab completing), so an empty argument is kept after a trailing space
+     * @return The tokenized arguments
+     */
+    @NotNull public static TokenizedArguments tokenize(@NotNull String[] arguments, boolean typing) {
+        boolean plain = true;
+        for (int i = 0; i < arguments.length && plain; i++) {
+            String argument = arguments[i];
+            boolean last = i == arguments.length - 1;
+            if (argument.equals(END_OF_FLAGS)) plain = typing && last;
+            else plain = !hasSpecialCharacter(argument);
+        }
+        if (plain) return new TokenizedArguments(ArgumentView.of(arguments));
+        return tokenize(String.join(" ", arguments), typing, true);
+    }
+
+    /**
+     * Tokenizes a whole command line
+     * @param line The arguments, separated by spaces
+     * @param typing Whether the final argument is still being typed (when tab completing), so an empty argument is kept after a trailing space
+     * @return The tokenized arguments
+     */
+    @NotNull public static TokenizedArguments tokenize(@NotNull CharSequence line, boolean typing) {
+        return tokenize(line, typing, false);
+    }
+
+    /**
+     * Tokenizes a command line
+     * @param line The arguments, separated by spaces
+     * @param typing Whether the final argument is still being typed
+     * @param keepEmpty Whether every space separates arguments, so repeated spaces make empty arguments like when Bukkit splits them
+     * @return The tokenized arguments
+     */
+    private static TokenizedArguments tokenize(CharSequence line, boolean typing, boolean keepEmpty) {
+        int length = line.length();
+        // Clients only replace what's after the last space when tab completing
+        int lastWord = length;
+        while (lastWord > 0 && line.charAt(lastWord - 1) != ' ') lastWord--;
+
+        List<String> tokens = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int endOfFlags = -1;
+        boolean lastPlain = true;
+        int replaceFrom = 0;
+        char replaceQuote = 0;
+        boolean reopen = false;
+        boolean open = false;
+
+        int i = 0;
+        boolean first = true;
+        while (true) {
+            int separator = i;
+            if (!keepEmpty) while (i < length && line.charAt(i) == ' ') i++;
+            else if (!first && i < length) i++;
+            first = false;
+            if (i == length) {
+                // A space after the last argument starts a new, empty one
+                if (typing && (length == 0 || i > separator)) {
+                    tokens.add("");
+                    lastPlain = true;
+                    open = false;
+                }
+                break;
+            }
+            if (keepEmpty && line.charAt(i) == ' ') {
+                // Another space right after a separator
+                tokens.add("");
+                lastPlain = true;
+                open = false;
+                continue;
+            }
+
+            int start = i;
+            boolean plain = true;
+            char quote = 0;
+            int wordFrom = 0;
+            char wordQuote = 0;
+            text.setLength(0);
+            while (i < length) {
+                if (i == lastWord && i > start) {
+                    wordFrom = plain ? i - start : text.length();
+                    wordQuote = quote;
+                }
+                char c = line.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                        i++;
+                    } else if (c == '\\' && quote == '"' && i + 1 < length && (line.charAt(i + 1) == '"' || line.charAt(i + 1) == '\\')) {
+                        text.append(line.charAt(i + 1));
+                        i += 2;
+                    } else {
+                        text.append(c);
+                        i++;
+                    }
+                } else if (c == ' ') {
+                    break;
+                } else if (c == '\\' ? i + 1 < length : (c == '"' || c == '\'') && i == start && (typing || closes(line, i))) {
+                    // Only copied once the argument turns out not to be plain
+                    if (plain) text.append(line, start, i);
+                    plain = false;
+                    if (c == '\\') {
+                        text.append(line.charAt(i + 1));
+                        i += 2;
+                    } else {
+                        if (i == start && start == lastWord) wordQuote = c;
+                        quote = c;
+                        i++;
+                    }
+                } else {
+                    if (!plain) text.append(c);
+                    i++;
+                }
+            }
+
+            if (i == length && lastWord == length && start < length) {
+                // The last space was quoted or escaped, so nothing of this argument gets replaced
+                wordFrom = plain ? i - start : text.length();
+                wordQuote = quote;
+            }
+
+            String token = plain ? line.subSequence(start, i).toString() : text.toString();
+            boolean last = i == length;
+            if (plain && endOfFlags == -1 && token.equals(END_OF_FLAGS) && !(typing && last)) {
+                endOfFlags = tokens.size();
+                continue;
+            }
+            tokens.add(token);
+            lastPlain = plain;
+            replaceFrom = wordFrom;
+            replaceQuote = wordQuote;
+            reopen = start == lastWord && wordQuote != 0;
+            open = quote != 0;
+        }
+
+        ArgumentView arguments = ArgumentView.tokenized(tokens.toArray(new String[0]), endOfFlags);
+        if (lastPlain) return new TokenizedArguments(arguments);
+        return new TokenizedArguments(arguments, open, replaceFrom, replaceQuote, reopen);
+    }
+
+    /**
+     * Whether a quote at the start of an argument is closed later on, so it can open a quoted argument when executing
+     */
+    private static boolean closes(CharSequence line, int quoteAt) {
+        char quote = line.charAt(quoteAt);
+        for (int i = quoteAt + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == quote) return true;
+            if (c == '\\' && quote == '"' && i + 1 < line.length() && (line.charAt(i + 1) == '"' || line.charAt(i + 1) == '\\')) i++;
+        }
+        return false;
+    }
+
+    private static boolean hasSpecialCharacter(String argument) {
+        if (argument.isEmpty()) return false;
+        char c = argument.charAt(0);
+        // Quotes only open at the start of an argument
+        if (c == '"' || c == '\'') return true;
+        return argument.indexOf('\\') != -1;
+    }
+}
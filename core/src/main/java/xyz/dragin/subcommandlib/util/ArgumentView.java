@@ -0,0 +1,128 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read-only window over part of an argument array, so arguments can be passed down a Subcommand tree without copying them.
+ * Changes to the underlying array are visible through the view.
+ * Arguments from {@link ArgumentTokenizer} also remember where an unquoted -- ended the flags, which views of them keep.
+ */
+public final class ArgumentView extends AbstractList<String> implements RandomAccess {
+    private static final String[] NONE = new String[0];
+    private static final ArgumentView EMPTY = new ArgumentView(NONE, 0, 0, -1);
+
+    private final String[] arguments;
+    private final int offset;
+    private final int length;
+    private final int endOfFlags;
+
+    private ArgumentView(String[] arguments, int offset, int length, int endOfFlags) {
+        this.arguments = arguments;
+        this.offset = offset;
+        this.length = length;
+        this.endOfFlags = endOfFlags;
+    }
+
+    /**
+     * Views a whole argument array
+     * @param arguments The arguments
+     * @return A view of every argument
+     */
+    @NotNull public static ArgumentView of(@NotNull String[] arguments) {
+        return of(arguments, 0, arguments.length);
+    }
+
+    /**
+     * Views the end of an argument array
+     * @param arguments The arguments
+     * @param from The index of the first argument to include
+     * @return A view of every argument starting at from
+     */
+    @NotNull public static ArgumentView of(@NotNull String[] arguments, int from) {
+        return of(arguments, from, arguments.length);
+    }
+
+    /**
+     * Views part of an argument array
+     * @param arguments The arguments
+     * @param from The index of the first argument to include
+     * @param to The index after the last argument to include
+     * @return A view of the arguments from (inclusive) to to (exclusive)
+     */
+    @NotNull public static ArgumentView of(@NotNull String[] arguments, int from, int to) {
+        if (from < 0 || to > arguments.length || from > to)
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + arguments.length);
+        return from == to ? EMPTY : new ArgumentView(arguments, from, to - from, -1);
+    }
+
+    /**
+     * Views tokenized arguments
+     * @param arguments The arguments
+     * @param endOfFlags The index of the first argument after an unquoted --, or -1 if there wasn't one
+     * @return A view of every argument
+     */
+    static ArgumentView tokenized(String[] arguments, int endOfFlags) {
+        return new ArgumentView(arguments, 0, arguments.length, endOfFlags);
+    }
+
+    private ArgumentView view(int from, int to) {
+        if (endOfFlags == -1) return of(arguments, from, to);
+        return new ArgumentView(arguments, from, to - from, endOfFlags);
+    }
+
+    /**
+     * Gets a view with no arguments
+     * @return An empty view
+     */
+    @NotNull public static ArgumentView empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Views the rest of the arguments after skipping some at the start
+     * @param count The amount of arguments to skip
+     * @return A view sharing this one's array
+     */
+    @NotNull public ArgumentView skip(int count) {
+        return view(offset + Math.min(count, length), offset + length);
+    }
+
+    /**
+     * Views every argument except the last one, e.g. those that were already typed when tab completing
+     * @return A view sharing this one's array
+     */
+    @NotNull public ArgumentView withoutLast() {
+        return length == 0 ? this : view(offset, offset + length - 1);
+    }
+
+    /**
+     * Gets the last argument
+     * @param fallback The value to return if there are no arguments
+     * @return The last argument, or the fallback if the view is empty
+     */
+    public String last(String fallback) {
+        return length == 0 ? fallback : arguments[offset + length - 1];
+    }
+
+    /**
+     * Gets the index of the first argument that can't be a flag, because an unquoted -- came before it (e.g. "/rm -- -file")
+     * @return The index in this view, which is 0 if the -- came before the view, or -1 if there wasn't one
+     */
+    public int getEndOfFlags() {
+        return endOfFlags == -1 ? -1 : Math.min(Math.max(endOfFlags - offset, 0), length);
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+        return arguments[offset + index];
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+}
@@ -0,0 +1,104 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Utility class for the executors used to run work off the main thread
+ */
+public final class AsyncUtils {
+    private AsyncUtils() {}
+
+    /**
+     * Creates a fixed size thread pool with a bounded queue.
+     * Work submitted while the queue is full is rejected with a RejectedExecutionException instead of piling up.
+     * Threads are daemon threads, so they never keep the server from shutting down.
+     * @param name The name of the threads, followed by a number
+     * @param threads The amount of threads
+     * @param queueSize The maximum amount of waiting work
+     * @return The new executor
+     */
+    @NotNull public static ThreadPoolExecutor newBoundedExecutor(@NotNull String name, int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                daemonThreads(name),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Starts asynchronous work on an executor, for code that may block before it returns its future (e.g. a slow tabCompleteAsync()).
+     * Cancelling the returned future interrupts the thread if the supplier is still running, and cancels the supplier's future once it has one.
+     * @param supplier Starts the work, on one of the executor's threads
+     * @param executor Where to call the supplier, usually a bounded executor
+     * @param <T> The type of the result
+     * @return A future completed with the result of the supplier's future, or exceptionally if the supplier throws
+     * @throws RejectedExecutionException If the executor rejects the work
+     */
+    @NotNull public static <T> CompletableFuture<T> composeAsync(@NotNull Supplier<? extends CompletionStage<T>> supplier, @NotNull Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            if (result.isDone()) return;
+            try {
+                CompletableFuture<T> started = supplier.get().toCompletableFuture();
+                started.whenComplete((value, error) -> {
+                    if (error != null) result.completeExceptionally(error);
+                    else result.complete(value);
+                });
+                result.whenComplete((value, error) -> {
+                    if (result.isCancelled()) started.cancel(true);
+                });
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, null);
+        // Stops the supplier if it's still running when the result is cancelled, e.g. after a timeout
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) task.cancel(true);
+        });
+        executor.execute(task);
+        return result;
+    }
+
+    /**
+     * Creates a single daemon thread for scheduling timeouts and other delayed work
+     * @param name The name of the thread
+     * @return The new scheduler
+     */
+    @NotNull public static ScheduledExecutorService newTimer(@NotNull String name) {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemonThreads(name));
+        // Timeouts are usually cancelled long before they run, so don't keep them queued
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Creates a ThreadFactory for numbered daemon threads
+     * @param name The name of the threads, followed by a number
+     * @return The new ThreadFactory
+     */
+    @NotNull public static ThreadFactory daemonThreads(@NotNull String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + " #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
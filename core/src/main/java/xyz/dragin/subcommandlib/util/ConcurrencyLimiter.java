@@ -0,0 +1,50 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts how much work each sender has running, so no sender can start more than a certain amount at once.
+ * Senders can be any object (e.g. from Sender.getHandle()), and are forgotten once they have nothing running.
+ */
+public final class ConcurrencyLimiter {
+    private final Map<Object, Integer> running = new ConcurrentHashMap<>();
+
+    /**
+     * Counts a new piece of work for a sender, unless they already have too much running.
+     * Every successful call must be followed by a call to release().
+     * @param sender The sender starting the work
+     * @param max The maximum amount of running work including the new one, or 0 for no limit
+     * @return True if the work was counted and can be started
+     */
+    public boolean tryAcquire(@NotNull Object sender, int max) {
+        boolean[] acquired = new boolean[1];
+        running.compute(sender, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (max > 0 && current >= max) return count;
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    /**
+     * Stops counting a piece of work for a sender
+     * @param sender The sender whose work finished
+     */
+    public void release(@NotNull Object sender) {
+        running.computeIfPresent(sender, (key, count) -> count <= 1 ? null : count - 1);
+    }
+
+    /**
+     * Gets how much work a sender has running
+     * @param sender The sender
+     * @return The amount of running work
+     */
+    public int getRunning(@NotNull Object sender) {
+        Integer count = running.get(sender);
+        return count == null ? 0 : count;
+    }
+}
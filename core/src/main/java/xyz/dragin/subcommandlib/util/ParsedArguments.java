@@ -0,0 +1,243 @@
+package xyz.dragin.subcommandlib.util;
+
+import io.vavr.control.Either;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.options.CommandOption;
+import xyz.dragin.subcommandlib.options.FlagList;
+import xyz.dragin.subcommandlib.options.ParsedOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parsed arguments of a command, stored as parallel arrays instead of a List of Eithers.
+ * Each entry is either a normal argument, a flag, or an option along with its parameter.
+ * Parsing happens in {@link TabUtils#parse(List, xyz.dragin.subcommandlib.options.FlagTable)}.
+ * Flags are the same instances as the allowed flags; parameters are only stored here, so parsing never changes or copies a flag.
+ * Parsed arguments can't be changed once parsed and all of their fields are final, so they can be shared between threads.
+ */
+public final class ParsedArguments {
+    /**
+     * What kind of argument an entry is
+     */
+    public enum Kind {
+        /** A normal (literal) argument */
+        ARGUMENT,
+        /** A CommandFlag without a parameter */
+        FLAG,
+        /** A CommandOption, which may or may not have been given its parameter yet */
+        OPTION
+    }
+
+    private static final ParsedArguments EMPTY = new Builder(0).build();
+
+    private final String[] values;
+    private final Kind[] kinds;
+    private final CommandFlag[] flags;
+    private final int size;
+    private volatile List<Either<String, CommandFlag>> list;
+
+    private ParsedArguments(String[] values, Kind[] kinds, CommandFlag[] flags, int size) {
+        this.values = values;
+        this.kinds = kinds;
+        this.flags = flags;
+        this.size = size;
+    }
+
+    /**
+     * Gets parsed arguments without any entries
+     * @return Empty parsed arguments
+     */
+    @NotNull public static ParsedArguments empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets the amount of entries
+     * @return The amount of normal arguments, flags and options
+     */
+    public int size() { return size; }
+
+    /**
+     * Whether there are no entries
+     * @return True if nothing was parsed
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Gets what kind of argument an entry is
+     * @param index The index of the entry
+     * @return The kind of the entry
+     */
+    @NotNull public Kind getKind(int index) {
+        checkIndex(index);
+        return kinds[index];
+    }
+
+    /**
+     * Gets the normal argument at an index
+     * @param index The index of the entry
+     * @return The argument, or null if the entry is a flag or option
+     */
+    @Nullable public String getArgument(int index) {
+        checkIndex(index);
+        return kinds[index] == Kind.ARGUMENT ? values[index] : null;
+    }
+
+    /**
+     * Gets the flag or option at an index
+     * @param index The index of the entry
+     * @return The flag, or null if the entry is a normal argument
+     */
+    @Nullable public CommandFlag getFlag(int index) {
+        checkIndex(index);
+        return flags[index];
+    }
+
+    /**
+     * Gets the parameter given to the option at an index
+     * @param index The index of the entry
+     * @return The parameter, or null if the entry isn't an option or its parameter hasn't been given yet
+     */
+    @Nullable public String getOption(int index) {
+        checkIndex(index);
+        return kinds[index] == Kind.OPTION ? values[index] : null;
+    }
+
+    /**
+     * Whether the last entry is an option still waiting for its parameter, e.g. "--name" while tab completing
+     * @return True if the parameter of the final option hasn't been given yet
+     */
+    public boolean isAwaitingOption() {
+        return size > 0 && kinds[size - 1] == Kind.OPTION && values[size - 1] == null && flags[size - 1] instanceof CommandOption;
+    }
+
+    /**
+     * Checks whether a flag was given, comparing by name
+     * @param flag The flag to look for, e.g. from CommandFlag.simple()
+     * @return True if the flag or an option with the same name was given
+     */
+    public boolean hasFlag(@NotNull CommandFlag flag) {
+        return indexOf(flag) != -1;
+    }
+
+    /**
+     * Gets the option at an index along with its parameter
+     * @param index The index of the entry
+     * @return The option and its parameter, or null if the entry isn't a CommandOption
+     */
+    @Nullable public ParsedOption getParsedOption(int index) {
+        checkIndex(index);
+        return kinds[index] == Kind.OPTION && flags[index] instanceof CommandOption ? new ParsedOption((CommandOption) flags[index], values[index]) : null;
+    }
+
+    /**
+     * Finds the parameter given to an option, comparing by name
+     * @param option The option to look for, e.g. from CommandOption.simple()
+     * @return The parameter of the first matching option, or null if it wasn't given
+     */
+    @Nullable public String findOption(@NotNull CommandFlag option) {
+        int index = indexOf(option);
+        return index == -1 ? null : getOption(index);
+    }
+
+    private int indexOf(CommandFlag flag) {
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] != Kind.ARGUMENT && flag.equals(flags[i])) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Filters all normal arguments
+     * @return Only specified normal arguments, in order
+     */
+    @NotNull public List<String> getNormalArguments() {
+        List<String> output = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == Kind.ARGUMENT) output.add(values[i]);
+        }
+        return output;
+    }
+
+    /**
+     * Filters all flags and options
+     * @return Only specified flags, in order, which can be searched by name with {@link FlagList#find(CommandFlag)}
+     */
+    @NotNull public FlagList getFlags() {
+        FlagList output = new FlagList(size);
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] != Kind.ARGUMENT) output.add(flags[i]);
+        }
+        return output;
+    }
+
+    /**
+     * Converts the entries to the List of Eithers used by the original Subcommand methods.
+     * The List is only built the first time this is called. Like before parameters were stored here,
+     * each option is a clone of the allowed CommandOption with its parameter set, so it's still an instance of the same class.
+     * @return An unmodifiable List of Objects, each either a String or CommandFlag
+     */
+    @SuppressWarnings("deprecation")
+    @NotNull public List<Either<String, CommandFlag>> asList() {
+        if (list == null) {
+            List<Either<String, CommandFlag>> output = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (kinds[i] == Kind.ARGUMENT) output.add(Either.left(values[i]));
+                else if (kinds[i] == Kind.OPTION && flags[i] instanceof CommandOption) {
+                    CommandOption option = ((CommandOption) flags[i]).clone();
+                    option.setOption(values[i]);
+                    output.add(Either.right(option));
+                } else output.add(Either.right(flags[i]));
+            }
+            list = Collections.unmodifiableList(output);
+        }
+        return list;
+    }
+
+    /**
+     * Collects entries while parsing, then gives them to the ParsedArguments, which never changes them
+     */
+    static final class Builder {
+        private String[] values;
+        private Kind[] kinds;
+        private CommandFlag[] flags;
+        private int size;
+
+        Builder(int capacity) {
+            values = new String[capacity];
+            kinds = new Kind[capacity];
+            flags = new CommandFlag[capacity];
+        }
+
+        void add(Kind kind, @Nullable String value, @Nullable CommandFlag flag) {
+            if (size == kinds.length) {
+                int capacity = Math.max(4, size * 2);
+                values = Arrays.copyOf(values, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+            values[size] = value;
+            kinds[size] = kind;
+            flags[size] = flag;
+            size++;
+        }
+
+        ParsedArguments build() {
+            return new ParsedArguments(values, kinds, flags, size);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+}
@@ -0,0 +1,135 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A sorted, reusable set of tab suggestions that can be narrowed down with a binary search instead of checking every suggestion.
+ * Build it once for large suggestion sets (e.g. item IDs or warp names) and return it from tabComplete(); it's narrowed automatically.
+ * As a List, it contains every suggestion in sorted order.
+ */
+public final class SuggestionIndex extends AbstractList<String> implements RandomAccess {
+    private final String[] sorted;
+    private final boolean ignoreCase;
+    private final int limit;
+
+    private SuggestionIndex(String[] sorted, boolean ignoreCase, int limit) {
+        this.sorted = sorted;
+        this.ignoreCase = ignoreCase;
+        this.limit = limit;
+    }
+
+    /**
+     * Builds an index that narrows by case-sensitive prefixes, the same as {@link TabUtils#narrow(List, String)}
+     * @param suggestions All suggestions to index
+     * @return The built index
+     */
+    @NotNull public static SuggestionIndex of(@NotNull Collection<String> suggestions) {
+        return build(suggestions, false);
+    }
+
+    /**
+     * Builds an index that narrows by case-insensitive prefixes (e.g. "st" suggests "Steve")
+     * @param suggestions All suggestions to index
+     * @return The built index
+     */
+    @NotNull public static SuggestionIndex ignoringCase(@NotNull Collection<String> suggestions) {
+        return build(suggestions, true);
+    }
+
+    private static SuggestionIndex build(Collection<String> suggestions, boolean ignoreCase) {
+        String[] sorted = suggestions.toArray(new String[0]);
+        Arrays.sort(sorted, order(ignoreCase));
+        return new SuggestionIndex(sorted, ignoreCase, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets a copy of this index that never narrows down to more than a certain amount of suggestions
+     * @param limit The maximum amount of suggestions returned by {@link #narrow(String)}
+     * @return An index sharing this one's suggestions
+     */
+    @NotNull public SuggestionIndex withLimit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+        return new SuggestionIndex(sorted, ignoreCase, limit);
+    }
+
+    /**
+     * Whether prefixes are matched regardless of case
+     * @return True if built with {@link #ignoringCase(Collection)}
+     */
+    public boolean isIgnoringCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * Narrows down the suggestions based on what's already typed, up to this index's limit
+     * @param typed What's already typed
+     * @return An unmodifiable view of all suggestions that start with what was typed, in sorted order
+     */
+    @NotNull public List<String> narrow(@Nullable String typed) {
+        return narrow(typed, limit);
+    }
+
+    /**
+     * Narrows down the suggestions based on what's already typed
+     * @param typed What's already typed
+     * @param limit The maximum amount of suggestions to return
+     * @return An unmodifiable view of all suggestions that start with what was typed, in sorted order
+     */
+    @NotNull public List<String> narrow(@Nullable String typed, int limit) {
+        int from = 0;
+        int to = sorted.length;
+        if (typed != null && !typed.isEmpty()) {
+            from = lowerBound(typed);
+            to = prefixEnd(typed, from);
+        }
+        if (to - from > limit) to = from + limit;
+        return from == 0 && to == sorted.length ? this : subList(from, to);
+    }
+
+    // First suggestion that sorts at or after what's typed
+    private int lowerBound(String typed) {
+        Comparator<String> order = order(ignoreCase);
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(sorted[mid], typed) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Suggestions starting with what's typed are all next to each other, starting at the lower bound
+    private int prefixEnd(String typed, int from) {
+        int low = from;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].regionMatches(ignoreCase, 0, typed, 0, typed.length())) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static Comparator<String> order(boolean ignoreCase) {
+        return ignoreCase ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder();
+    }
+
+    @Override
+    public String get(int index) {
+        return sorted[index];
+    }
+
+    @Override
+    public int size() {
+        return sorted.length;
+    }
+}
@@ -0,0 +1,112 @@
+package xyz.dragin.subcommandlib.util;
+
+import io.vavr.control.Either;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.options.CommandOption;
+import xyz.dragin.subcommandlib.options.FlagTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for tab completion
+ */
+public final class TabUtils {
+    private TabUtils() {}
+
+    /**
+     * Checks for valid flags in a command
+     * @param arguments The arguments passed to the command to parse
+     * @param allowedFlags The List of flags to consider when parsing, otherwise everything is interpreted as normal arguments
+     * @return A List of Objects, each either a String or CommandFlag, that have been supplied
+     */
+    public static List<Either<String, CommandFlag>> parseFlags(@NotNull List<String> arguments, @NotNull List<CommandFlag> allowedFlags) {
+        return parseFlags(arguments, FlagTable.of(allowedFlags));
+    }
+
+    /**
+     * Checks for valid flags in a command using a prebuilt table, which is faster when there are many allowed flags
+     * @param arguments The arguments passed to the command to parse
+     * @param allowedFlags The table of flags to consider when parsing, otherwise everything is interpreted as normal arguments
+     * @return A List of Objects, each either a String or CommandFlag, that have been supplied
+     */
+    public static List<Either<String, CommandFlag>> parseFlags(@NotNull List<String> arguments, @NotNull FlagTable allowedFlags) {
+        return new ArrayList<>(parse(arguments, allowedFlags).asList());
+    }
+
+    /**
+     * Checks for valid flags in a command, without creating a List of Eithers.
+     * Arguments from {@link ArgumentTokenizer} after an unquoted -- are always normal arguments.
+     * @param arguments The arguments passed to the command to parse, usually an {@link ArgumentView}
+     * @param allowedFlags The table of flags to consider when parsing, otherwise everything is interpreted as normal arguments
+     * @return The parsed normal arguments, flags and options
+     */
+    @NotNull public static ParsedArguments parse(@NotNull List<String> arguments, @NotNull FlagTable allowedFlags) {
+        if (arguments.isEmpty()) return ParsedArguments.empty();
+        int endOfFlags = arguments instanceof ArgumentView ? ((ArgumentView) arguments).getEndOfFlags() : -1;
+        if (endOfFlags == -1) endOfFlags = arguments.size();
+        ParsedArguments.Builder output = new ParsedArguments.Builder(arguments.size());
+        CommandFlag nextOption = null;
+        for (int i = 0; i < arguments.size(); i++) {
+            String arg = arguments.get(i);
+            if (nextOption != null && i == endOfFlags) {
+                // An option right before -- was never given its parameter
+                output.add(ParsedArguments.Kind.OPTION, null, nextOption);
+                nextOption = null;
+            }
+            if (nextOption != null) {
+                output.add(ParsedArguments.Kind.OPTION, arg, nextOption);
+                nextOption = null;
+            } else if (i >= endOfFlags || allowedFlags.isEmpty() || !arg.startsWith("-")) {
+                output.add(ParsedArguments.Kind.ARGUMENT, arg, null);
+            } else if (arg.startsWith("--")) {
+                CommandFlag flag = allowedFlags.getLong(arg);
+                if (flag == null) output.add(ParsedArguments.Kind.ARGUMENT, arg, null);
+                else if (flag instanceof CommandOption) nextOption = flag;
+                else output.add(ParsedArguments.Kind.FLAG, null, flag);
+            } else if (!isFlagCluster(arg, allowedFlags)) {
+                output.add(ParsedArguments.Kind.ARGUMENT, arg, null);
+            } else if (arg.length() == 2 && allowedFlags.getShort(arg.charAt(1)) instanceof CommandOption) {
+                nextOption = allowedFlags.getShort(arg.charAt(1));
+            } else {
+                for (int c = 1; c < arg.length(); c++) {
+                    CommandFlag flag = allowedFlags.getShort(arg.charAt(c));
+                    output.add(flag instanceof CommandOption ? ParsedArguments.Kind.OPTION : ParsedArguments.Kind.FLAG, null, flag);
+                }
+            }
+        }
+        if (nextOption != null) output.add(ParsedArguments.Kind.OPTION, null, nextOption);
+        return output.build();
+    }
+
+    /**
+     * Checks whether an argument is made up of only allowed single character flags (e.g. -zxvf)
+     * @param arg The argument, including the dash
+     * @param allowedFlags The table of allowed flags
+     * @return True if there is at least one character after the dash and every one is an allowed flag
+     */
+    private static boolean isFlagCluster(String arg, FlagTable allowedFlags) {
+        if (arg.length() < 2) return false;
+        for (int i = 1; i < arg.length(); i++) {
+            if (allowedFlags.getShort(arg.charAt(i)) == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Narrows down options based on what's already typed
+     * @param options All available options
+     * @param typed What's already typed
+     * @return All the options that start with what was typed
+     */
+    public static List<String> narrow(@NotNull List<String> options, @Nullable String typed) {
+        if (options instanceof SuggestionIndex) return new ArrayList<>(((SuggestionIndex) options).narrow(typed));
+        List<String> output = new ArrayList<>();
+        for (String option : options) {
+            if (typed == null || option.startsWith(typed)) output.add(option);
+        }
+        return output;
+    }
+}
@@ -0,0 +1,83 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Arguments split by {@link ArgumentTokenizer}, along with how the final argument was typed.
+ * Tab suggestions are for the final argument without its quotes or escapes,
+ * but clients only replace what's after the last space, so they're turned back into what the client should insert.
+ */
+public final class TokenizedArguments {
+    private final ArgumentView arguments;
+    private final boolean plain;
+    private final boolean quoteOpen;
+    private final int replaceFrom;
+    private final char replaceQuote;
+    private final boolean reopen;
+
+    TokenizedArguments(ArgumentView arguments) {
+        this(arguments, true, false, 0, (char) 0, false);
+    }
+
+    TokenizedArguments(ArgumentView arguments, boolean quoteOpen, int replaceFrom, char replaceQuote, boolean reopen) {
+        this(arguments, false, quoteOpen, replaceFrom, replaceQuote, reopen);
+    }
+
+    private TokenizedArguments(ArgumentView arguments, boolean plain, boolean quoteOpen, int replaceFrom, char replaceQuote, boolean reopen) {
+        this.arguments = arguments;
+        this.plain = plain;
+        this.quoteOpen = quoteOpen;
+        this.replaceFrom = replaceFrom;
+        this.replaceQuote = replaceQuote;
+        this.reopen = reopen;
+    }
+
+    /**
+     * Gets the arguments without their quotes and escapes, which can be passed to {@link TabUtils#parse(java.util.List, xyz.dragin.subcommandlib.options.FlagTable)}
+     * @return The arguments
+     */
+    @NotNull public ArgumentView getArguments() { return arguments; }
+
+    /**
+     * Whether the final argument was typed without quotes or escapes, so tab suggestions can be used as they are
+     * @return True if the final argument is plain
+     */
+    public boolean isPlain() { return plain; }
+
+    /**
+     * Whether the final argument has a quote that hasn't been closed yet, e.g. while tab completing
+     * @return True if a quote is still open
+     */
+    public boolean isQuoteOpen() { return quoteOpen; }
+
+    /**
+     * Turns a tab suggestion for the final argument into what the client should replace the text after the last space with,
+     * quoting or escaping it the same way the final argument was typed
+     * @param suggestion A suggestion starting with the final argument
+     * @return The text to insert
+     */
+    @NotNull public String toReplacement(@NotNull String suggestion) {
+        if (plain) return suggestion;
+        String rest = suggestion.substring(Math.min(replaceFrom, suggestion.length()));
+        if (replaceQuote == 0) return escape(rest, (char) 0);
+        StringBuilder output = new StringBuilder(rest.length() + 3);
+        if (reopen) output.append(replaceQuote);
+        return output.append(escape(rest, replaceQuote)).append(replaceQuote).toString();
+    }
+
+    private static String escape(String text, char quote) {
+        // Nothing can be escaped inside single quotes
+        if (quote == '\'') return text;
+        StringBuilder output = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean special = c == '"' || c == '\\' || (quote == 0 && (c == ' ' || c == '\''));
+            if (special && output == null) output = new StringBuilder(text.length() + 4).append(text, 0, i);
+            if (output != null) {
+                if (special) output.append('\\');
+                output.append(c);
+            }
+        }
+        return output == null ? text : output.toString();
+    }
+}
@@ -0,0 +1,161 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finds words similar to a mistyped one, for "did you mean" hints.
+ * Words are kept in a BK-tree by their edit distance (ignoring case), so a lookup only compares against a small part of the words
+ * instead of every one of them.
+ */
+public final class TypoIndex {
+    private static final TypoIndex EMPTY = new TypoIndex(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private TypoIndex(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Indexes words
+     * @param words The words, of which duplicates are ignored
+     * @return An index of the words
+     */
+    @NotNull public static TypoIndex of(@NotNull Collection<String> words) {
+        Node root = null;
+        int size = 0;
+        for (String word : words) {
+            if (root == null) {
+                root = new Node(word);
+                size++;
+            } else if (root.add(word)) size++;
+        }
+        return root == null ? EMPTY : new TypoIndex(root, size);
+    }
+
+    /**
+     * Finds the words closest to a mistyped one, allowing more mistakes in longer words
+     * @param typed The mistyped word
+     * @param limit The maximum amount of words to return
+     * @return The closest words, closest first
+     * @see #maxDistance(String)
+     */
+    @NotNull public List<String> find(@NotNull String typed, int limit) {
+        return find(typed, maxDistance(typed), limit);
+    }
+
+    /**
+     * Finds the words closest to a mistyped one
+     * @param typed The mistyped word
+     * @param maxDistance The most single character insertions, deletions or replacements a word can be away from what's typed
+     * @param limit The maximum amount of words to return
+     * @return The closest words, closest first, then in alphabetical order
+     */
+    @NotNull public List<String> find(@NotNull String typed, int maxDistance, int limit) {
+        if (root == null || limit <= 0) return new ArrayList<>(0);
+        List<Match> matches = new ArrayList<>();
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int distance = distance(typed, node.word);
+            if (distance <= maxDistance) matches.add(new Match(node.word, distance));
+            // Only children within maxDistance of this distance can be close enough, by the triangle inequality
+            if (node.children == null) continue;
+            int from = Math.max(1, distance - maxDistance);
+            int to = Math.min(node.children.length - 1, distance + maxDistance);
+            for (int i = from; i <= to; i++) {
+                if (node.children[i] != null) pending.add(node.children[i]);
+            }
+        }
+        matches.sort((a, b) -> a.distance != b.distance ? Integer.compare(a.distance, b.distance) : a.word.compareTo(b.word));
+        List<String> output = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) output.add(matches.get(i).word);
+        return output;
+    }
+
+    /**
+     * Gets the amount of indexed words
+     * @return The amount of distinct words
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets how many mistakes are allowed when looking for words similar to what's typed
+     * @param typed The mistyped word
+     * @return 1 for words up to 3 characters, 2 up to 6 (so swapping two letters is allowed), otherwise 3
+     */
+    public static int maxDistance(@NotNull String typed) {
+        return typed.length() <= 3 ? 1 : typed.length() <= 6 ? 2 : 3;
+    }
+
+    /**
+     * Gets the edit (Levenshtein) distance between two words, ignoring case
+     * @param a The first word
+     * @param b The second word
+     * @return The least single character insertions, deletions or replacements that turn one word into the other
+     */
+    public static int distance(@NotNull CharSequence a, @NotNull CharSequence b) {
+        if (a.length() < b.length()) {
+            CharSequence swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = Character.toLowerCase(a.charAt(i - 1));
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = c == Character.toLowerCase(b.charAt(j - 1)) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Node {
+        private final String word;
+        private Node[] children;
+
+        private Node(String word) {
+            this.word = word;
+        }
+
+        private boolean add(String word) {
+            Node node = this;
+            while (true) {
+                int distance = distance(word, node.word);
+                if (distance == 0) return false;
+                if (node.children == null) node.children = new Node[distance + 1];
+                else if (node.children.length <= distance) node.children = Arrays.copyOf(node.children, distance + 1);
+                if (node.children[distance] == null) {
+                    node.children[distance] = new Node(word);
+                    return true;
+                }
+                node = node.children[distance];
+            }
+        }
+    }
+
+    private static final class Match {
+        private final String word;
+        private final int distance;
+
+        private Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+}
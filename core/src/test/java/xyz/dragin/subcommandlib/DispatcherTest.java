@@ -0,0 +1,187 @@
+package xyz.dragin.subcommandlib;
+
+import org.junit.jupiter.api.Test;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.task.CommandTask;
+import xyz.dragin.subcommandlib.task.TaskHandle;
+import xyz.dragin.subcommandlib.util.ParsedArguments;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatcherTest {
+    private static final List<CommandFlag> FLAGS = Arrays.asList(CommandFlag.simple("force"), CommandFlag.simple("v"));
+
+    /**
+     * A sender without any platform, which remembers its messages
+     */
+    private static final class TestSender implements Sender {
+        private final String name;
+        private final List<String> messages = new ArrayList<>();
+
+        private TestSender(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() { return name; }
+
+        @Override
+        public void sendMessage(String message) { messages.add(message); }
+
+        @Override
+        public boolean hasPermission(String permission) { return true; }
+
+        @Override
+        public Object getKey() { return name; }
+    }
+
+    /**
+     * "region" with a "set" child (aliased "s") that remembers what it was run with, and a "list" child without flags
+     */
+    private static CommandHandler tree(List<ParsedArguments> executions) {
+        CommandHandler set = new CommandHandler() {
+            @Override
+            public String getName() { return "set"; }
+
+            @Override
+            public List<String> getAliases() { return Collections.singletonList("s"); }
+
+            @Override
+            public boolean execute(CommandContext context) {
+                executions.add(context.getArguments());
+                return true;
+            }
+
+            @Override
+            public List<String> tabComplete(CommandContext context, String typed) {
+                return Arrays.asList("spawn", "arena");
+            }
+
+            @Override
+            public List<CommandFlag> getAllowedFlags(Sender sender) { return FLAGS; }
+        };
+        CommandHandler list = () -> "list";
+        return new CommandHandler() {
+            @Override
+            public String getName() { return "region"; }
+
+            @Override
+            public List<? extends CommandHandler> getChildren() { return Arrays.asList(set, list); }
+        };
+    }
+
+    @Test
+    void executesTheChildNamedByTheArguments() {
+        List<ParsedArguments> executions = new ArrayList<>();
+        Dispatcher dispatcher = new Dispatcher(tree(executions));
+        TestSender sender = new TestSender("executes");
+
+        assertTrue(dispatcher.execute(sender, "s", "spawn", "--force"));
+        assertEquals(1, executions.size());
+        assertEquals(Collections.singletonList("spawn"), executions.get(0).getNormalArguments());
+        assertEquals(Collections.singletonList(CommandFlag.simple("force")), executions.get(0).getFlags());
+        assertTrue(sender.messages.isEmpty());
+    }
+
+    @Test
+    void tellsTheSenderWhatTheyMeant() {
+        Dispatcher dispatcher = new Dispatcher(tree(new ArrayList<>()));
+        TestSender sender = new TestSender("typos");
+
+        assertFalse(dispatcher.execute(sender, "lsit"));
+        assertEquals(2, sender.messages.size());
+        assertTrue(sender.messages.get(0).endsWith("This command cannot be run by itself."));
+        assertTrue(sender.messages.get(1).endsWith("Did you mean /region list or /region set?"));
+    }
+
+    @Test
+    void tabCompletesChildrenSuggestionsAndFlags() {
+        Dispatcher dispatcher = new Dispatcher(tree(new ArrayList<>()));
+        TestSender sender = new TestSender("completes");
+
+        assertEquals(Arrays.asList("set", "s"), dispatcher.tabComplete(sender, "s"));
+        assertEquals(Arrays.asList("spawn", "arena", "--force", "-v"), dispatcher.tabComplete(sender, "set", ""));
+        assertEquals(Collections.singletonList("-v"), dispatcher.tabComplete(sender, "set", "--force", "-"));
+    }
+
+    @Test
+    void asyncCommandsReportBackOnTheMainThread() {
+        List<Runnable> mainThread = new ArrayList<>();
+        List<Runnable> async = new ArrayList<>();
+        Platform platform = new Platform() {
+            @Override
+            public Executor getMainThread() { return mainThread::add; }
+
+            @Override
+            public Logger getLogger() { return Platform.headless().getLogger(); }
+        };
+        AsyncCommandHandler command = new AsyncCommandHandler() {
+            @Override
+            public String getName() { return "export"; }
+
+            @Override
+            public Executor getExecutor() { return async::add; }
+        };
+        Dispatcher dispatcher = new Dispatcher(CommandNode.compile(command), platform);
+        TestSender sender = new TestSender("async");
+
+        assertTrue(dispatcher.execute(sender));
+        assertEquals(1, SubcommandCore.getRunning().getRunning(sender));
+        // A second one has to wait for the first
+        assertTrue(dispatcher.execute(sender));
+        assertTrue(sender.messages.get(0).endsWith("Please wait for your previous command to finish."));
+
+        async.remove(0).run();
+        assertEquals(0, SubcommandCore.getRunning().getRunning(sender));
+        assertEquals(1, sender.messages.size());
+        // It returned false, which is only told on the main thread
+        mainThread.remove(0).run();
+        assertTrue(sender.messages.get(1).endsWith("This command cannot be run by itself."));
+    }
+
+    @Test
+    void tasksRunWithoutAServer() {
+        List<String> steps = new ArrayList<>();
+        List<TaskHandle> handles = new ArrayList<>();
+        CommandHandler command = new CommandHandler() {
+            @Override
+            public String getName() { return "scan"; }
+
+            @Override
+            public boolean execute(CommandContext context) {
+                handles.add(context.runTask(() -> {
+                    steps.add("step");
+                    return steps.size() < 3;
+                }));
+                return true;
+            }
+        };
+        TestSender sender = new TestSender("tasks");
+
+        assertTrue(new Dispatcher(command).execute(sender));
+        // The headless platform ticks the task to the end before execute() returns
+        assertEquals(3, steps.size());
+        assertTrue(handles.get(0).isDone());
+        assertEquals(0, SubcommandCore.getTaskScheduler().getRunning(sender.getKey()));
+    }
+
+    @Test
+    void failingTasksTellTheSender() {
+        CommandTask failing = () -> {
+            throw new IllegalStateException("broken");
+        };
+        TestSender sender = new TestSender("failing");
+
+        TaskHandle handle = Dispatcher.runTask(sender, failing, Platform.headless());
+        assertTrue(handle.getCompletion().isCompletedExceptionally());
+        assertEquals(1, sender.messages.size());
+        assertTrue(sender.messages.get(0).endsWith("An internal error occurred while attempting to perform this command."));
+    }
+}
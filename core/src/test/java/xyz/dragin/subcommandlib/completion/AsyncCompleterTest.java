@@ -0,0 +1,172 @@
+package xyz.dragin.subcommandlib.completion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncCompleterTest {
+    private long now = 0;
+    private final List<Timeout<?>> timeouts = new ArrayList<>();
+    // Never runs anything by itself; timeouts are run by the tests
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1) {
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> command, long delay, TimeUnit unit) {
+            Timeout<V> timeout = new Timeout<>(command);
+            timeouts.add(timeout);
+            return timeout;
+        }
+    };
+    private final List<CompletableFuture<List<String>>> started = new ArrayList<>();
+
+    private static final class Timeout<V> extends FutureTask<V> implements ScheduledFuture<V> {
+        private Timeout(Callable<V> command) {
+            super(command);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return 0;
+        }
+    }
+
+    @AfterEach
+    void shutDown() {
+        timer.shutdownNow();
+    }
+
+    private AsyncCompleter completer(long timeoutMillis, long resultTtlMillis) {
+        return new AsyncCompleter(timeoutMillis, 0, resultTtlMillis, timer, () -> now);
+    }
+
+    /**
+     * Starts a completion that only finishes once the test completes it
+     */
+    private CompletableFuture<List<String>> request() {
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
+        started.add(future);
+        return future;
+    }
+
+    @Test
+    void returnsTheResultOnceItsFinished() {
+        AsyncCompleter completer = completer(0, 0);
+
+        assertEquals(Collections.emptyList(), completer.complete("alice", "warp", this::request));
+        started.get(0).complete(Arrays.asList("spawn", "arena"));
+        assertEquals(Arrays.asList("spawn", "arena"), completer.complete("alice", "warp", this::request));
+        // Reused instead of started again
+        assertEquals(1, started.size());
+    }
+
+    @Test
+    void aNewRequestCancelsOnlyThatSendersPreviousOne() {
+        AsyncCompleter completer = completer(0, 0);
+        completer.complete("alice", "warp", this::request);
+        completer.complete("bob", "warp", this::request);
+
+        completer.complete("alice", "kit", this::request);
+        assertTrue(started.get(0).isCancelled());
+        assertFalse(started.get(1).isCancelled());
+        assertFalse(started.get(2).isCancelled());
+    }
+
+    @Test
+    void finishedRequestsDontCancelAnything() {
+        AsyncCompleter completer = completer(0, 0);
+        completer.complete("alice", "warp", this::request);
+        started.get(0).complete(Collections.singletonList("spawn"));
+
+        assertEquals(Collections.singletonList("kit"), completer.complete("alice", "kit", () -> CompletableFuture.completedFuture(Collections.singletonList("kit"))));
+        assertFalse(started.get(0).isCancelled());
+        // The finished one replaced it, so asking for the first again starts it again
+        completer.complete("alice", "warp", this::request);
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    void resultsExpireAfterTheirTimeToLive() {
+        AsyncCompleter completer = completer(0, 1000);
+        completer.complete("alice", "warp", this::request);
+        started.get(0).complete(Collections.singletonList("spawn"));
+
+        now += TimeUnit.MILLISECONDS.toNanos(1000);
+        assertEquals(Collections.singletonList("spawn"), completer.complete("alice", "warp", this::request));
+        assertEquals(1, started.size());
+
+        now += 1;
+        assertEquals(Collections.emptyList(), completer.complete("alice", "warp", this::request));
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    void runningRequestsDontExpire() {
+        AsyncCompleter completer = completer(0, 1000);
+        completer.complete("alice", "warp", this::request);
+
+        now += TimeUnit.SECONDS.toNanos(60);
+        completer.complete("alice", "warp", this::request);
+        assertEquals(1, started.size());
+        assertFalse(started.get(0).isCancelled());
+    }
+
+    @Test
+    void timedOutRequestsAreCancelled() {
+        AsyncCompleter completer = completer(2000, 0);
+        completer.complete("alice", "warp", this::request);
+        assertEquals(1, timeouts.size());
+
+        timeouts.get(0).run();
+        assertTrue(started.get(0).isCancelled());
+        assertEquals(Collections.emptyList(), completer.complete("alice", "warp", this::request));
+    }
+
+    @Test
+    void finishingStopsTheTimeout() {
+        AsyncCompleter completer = completer(2000, 0);
+        completer.complete("alice", "warp", this::request);
+
+        started.get(0).complete(Collections.singletonList("spawn"));
+        assertTrue(timeouts.get(0).isCancelled());
+    }
+
+    @Test
+    void rejectedRequestsAreTriedAgain() {
+        AsyncCompleter completer = completer(0, 0);
+
+        assertEquals(Collections.emptyList(), completer.complete("alice", "warp", () -> {
+            throw new RejectedExecutionException();
+        }));
+        completer.complete("alice", "warp", this::request);
+        assertEquals(1, started.size());
+    }
+
+    @Test
+    void cancellingForgetsTheSender() {
+        AsyncCompleter completer = completer(0, 0);
+        completer.complete("alice", "warp", this::request);
+
+        completer.cancel("alice");
+        assertTrue(started.get(0).isCancelled());
+        completer.complete("alice", "warp", this::request);
+        assertEquals(2, started.size());
+    }
+}
@@ -0,0 +1,108 @@
+package xyz.dragin.subcommandlib.completion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionThrottleTest {
+    private long now = 0;
+
+    private static String[] args(String... arguments) {
+        return arguments;
+    }
+
+    @Test
+    void burstsAreComputedThenRefillAtTheRate() {
+        CompletionThrottle throttle = new CompletionThrottle(10, 3, () -> now);
+
+        for (int i = 0; i < 3; i++) assertNull(throttle.acquire("alice", "warp", args("")));
+        assertNotNull(throttle.acquire("alice", "warp", args("")));
+
+        // One token every 100 milliseconds
+        now += TimeUnit.MILLISECONDS.toNanos(99);
+        assertNotNull(throttle.acquire("alice", "warp", args("")));
+        now += TimeUnit.MILLISECONDS.toNanos(1);
+        assertNull(throttle.acquire("alice", "warp", args("")));
+        assertNotNull(throttle.acquire("alice", "warp", args("")));
+
+        // Never more than the burst, however long it waited
+        now += TimeUnit.SECONDS.toNanos(60);
+        for (int i = 0; i < 3; i++) assertNull(throttle.acquire("alice", "warp", args("")));
+        assertNotNull(throttle.acquire("alice", "warp", args("")));
+        assertEquals(7, throttle.getComputed());
+    }
+
+    @Test
+    void sendersAndCommandsHaveTheirOwnBuckets() {
+        CompletionThrottle throttle = new CompletionThrottle(10, 1, () -> now);
+
+        assertNull(throttle.acquire("alice", "warp", args("")));
+        assertNotNull(throttle.acquire("alice", "warp", args("")));
+        assertNull(throttle.acquire("alice", "kit", args("")));
+        assertNull(throttle.acquire("bob", "warp", args("")));
+        assertEquals(2, throttle.size());
+    }
+
+    @Test
+    void requestsWithoutATokenAreNarrowedFromTheLastResult() {
+        CompletionThrottle throttle = new CompletionThrottle(10, 1, () -> now);
+        assertNull(throttle.acquire("alice", "warp", args("set", "")));
+        throttle.remember("alice", "warp", args("set", ""), Arrays.asList("spawn", "arena", "shop"));
+
+        assertEquals(Arrays.asList("spawn", "shop"), throttle.acquire("alice", "warp", args("set", "s")));
+        assertEquals(Collections.singletonList("shop"), throttle.acquire("alice", "warp", args("set", "sh")));
+        assertEquals(2, throttle.getCoalesced());
+        assertEquals(0, throttle.getDropped());
+    }
+
+    @Test
+    void requestsForOtherArgumentsAreDropped() {
+        CompletionThrottle throttle = new CompletionThrottle(10, 1, () -> now);
+        assertNull(throttle.acquire("alice", "warp", args("set", "")));
+        throttle.remember("alice", "warp", args("set", ""), Arrays.asList("spawn", "arena"));
+
+        assertEquals(Collections.emptyList(), throttle.acquire("alice", "warp", args("delete", "s")));
+        assertEquals(Collections.emptyList(), throttle.acquire("alice", "warp", args("set", "spawn", "")));
+        assertEquals(2, throttle.getDropped());
+        assertEquals(0, throttle.getCoalesced());
+    }
+
+    @Test
+    void requestsWithoutAResultAreDropped() {
+        CompletionThrottle throttle = new CompletionThrottle(10, 1, () -> now);
+        assertNull(throttle.acquire("alice", "warp", args("")));
+
+        assertEquals(Collections.emptyList(), throttle.acquire("alice", "warp", args("")));
+        assertEquals(1, throttle.getDropped());
+    }
+
+    @Test
+    void commandsCanHaveTheirOwnLimit() {
+        CompletionThrottle throttle = new CompletionThrottle(10, 1, () -> now);
+        throttle.setLimit("warp", 0, 0);
+
+        for (int i = 0; i < 10; i++) assertNull(throttle.acquire("alice", "warp", args("")));
+        assertEquals(0, throttle.size());
+        assertNull(throttle.acquire("alice", "kit", args("")));
+        assertNotNull(throttle.acquire("alice", "kit", args("")));
+
+        throttle.removeLimit("warp");
+        assertNull(throttle.acquire("alice", "warp", args("")));
+        assertNotNull(throttle.acquire("alice", "warp", args("")));
+    }
+
+    @Test
+    void forgottenSendersStartWithAFullBucket() {
+        CompletionThrottle throttle = new CompletionThrottle(10, 1, () -> now);
+        assertNull(throttle.acquire("alice", "warp", args("")));
+        throttle.remember("alice", "warp", args(""), Collections.singletonList("spawn"));
+
+        throttle.forget("alice");
+        assertEquals(0, throttle.size());
+        assertNull(throttle.acquire("alice", "warp", args("")));
+    }
+}
@@ -0,0 +1,162 @@
+package xyz.dragin.subcommandlib.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSchedulerTest {
+    private long now = 0;
+
+    /**
+     * A task with a fixed amount of steps, each taking some simulated time and writing its name to a log
+     */
+    private CommandTask task(String name, int steps, long millisPerStep, List<String> log) {
+        return new CommandTask() {
+            private int done;
+
+            @Override
+            public boolean step() {
+                now += millisPerStep * 1_000_000;
+                log.add(name);
+                return ++done < steps;
+            }
+
+            @Override
+            public double getProgress() {
+                return (double) done / steps;
+            }
+        };
+    }
+
+    @Test
+    void ownersTakeTurns() {
+        TaskScheduler scheduler = new TaskScheduler(100, 0, () -> now);
+        List<String> log = new ArrayList<>();
+        scheduler.submit("alice", task("a1", 2, 1, log), null);
+        scheduler.submit("alice", task("a2", 2, 1, log), null);
+        scheduler.submit("bob", task("b", 3, 1, log), null);
+
+        assertEquals(7, scheduler.tick());
+        assertEquals(Arrays.asList("a1", "b", "a2", "b", "a1", "b", "a2"), log);
+        assertEquals(0, scheduler.getRunning());
+    }
+
+    @Test
+    void stopsOnceTheBudgetIsUsedUp() {
+        TaskScheduler scheduler = new TaskScheduler(10, 0, () -> now);
+        List<String> log = new ArrayList<>();
+        TaskHandle handle = scheduler.submit("alice", task("a", 10, 4, log), null);
+
+        assertEquals(3, scheduler.tick());
+        assertEquals(3, handle.getSteps());
+        assertFalse(handle.isDone());
+        assertEquals(3, scheduler.tick());
+        assertEquals(3, scheduler.tick());
+        assertEquals(1, scheduler.tick());
+        assertTrue(handle.isDone());
+        assertEquals(0, scheduler.tick());
+    }
+
+    @Test
+    void alwaysRunsOneStep() {
+        TaskScheduler scheduler = new TaskScheduler(1, 0, () -> now);
+        TaskHandle handle = scheduler.submit("alice", task("a", 2, 50, new ArrayList<>()), null);
+
+        assertEquals(1, scheduler.tick());
+        assertEquals(1, scheduler.tick());
+        assertTrue(handle.getCompletion().isDone());
+    }
+
+    @Test
+    void cancelledTasksAreSkipped() {
+        TaskScheduler scheduler = new TaskScheduler(100, 0, () -> now);
+        List<String> log = new ArrayList<>();
+        TaskHandle first = scheduler.submit("alice", task("a1", 5, 1, log), null);
+        scheduler.submit("alice", task("a2", 1, 1, log), null);
+        scheduler.submit("bob", task("b", 1, 1, log), null);
+
+        assertTrue(first.cancel());
+        assertEquals(1, scheduler.cancel("bob"));
+        scheduler.tick();
+        assertEquals(Arrays.asList("a2"), log);
+        assertTrue(first.isCancelled());
+        assertEquals(0, scheduler.getRunning());
+        assertEquals(0, scheduler.getRunning("alice"));
+    }
+
+    @Test
+    void failingStepsCompleteExceptionally() {
+        TaskScheduler scheduler = new TaskScheduler(100, 0, () -> now);
+        List<String> log = new ArrayList<>();
+        TaskHandle failing = scheduler.submit("alice", () -> {
+            throw new IllegalStateException("broken");
+        }, null);
+        TaskHandle other = scheduler.submit("bob", task("b", 2, 1, log), null);
+
+        scheduler.tick();
+        assertTrue(failing.isDone());
+        CompletionException thrown = assertThrows(CompletionException.class, () -> failing.getCompletion().join());
+        assertTrue(thrown.getCause() instanceof IllegalStateException);
+        assertTrue(other.isDone());
+        assertEquals(0, scheduler.getRunning());
+    }
+
+    @Test
+    void reportsProgressEveryInterval() {
+        TaskScheduler scheduler = new TaskScheduler(1, 10, () -> now);
+        List<Double> reports = new ArrayList<>();
+        TaskHandle handle = scheduler.submit("alice", task("a", 8, 4, new ArrayList<>()), reported -> reports.add(reported.getProgress()));
+
+        while (!handle.isDone()) scheduler.tick();
+        // Reported after 12ms and 24ms; the last step finishes the task instead of reporting it
+        assertEquals(Arrays.asList(3 / 8.0, 6 / 8.0), reports);
+        assertEquals(1.0, handle.getProgress());
+    }
+
+    @Test
+    void failingProgressReportsDontStopTheTask() {
+        TaskScheduler scheduler = new TaskScheduler(100, 1, () -> now);
+        List<String> log = new ArrayList<>();
+        TaskHandle handle = scheduler.submit("alice", task("a", 3, 2, log), reported -> {
+            throw new IllegalStateException("sender left");
+        });
+        TaskHandle other = scheduler.submit("bob", task("b", 2, 2, log), null);
+
+        assertEquals(5, scheduler.tick());
+        assertEquals(Arrays.asList("a", "b", "a", "b", "a"), log);
+        assertTrue(handle.getCompletion().isDone());
+        assertFalse(handle.getCompletion().isCompletedExceptionally());
+        assertTrue(other.isDone());
+        assertEquals(0, scheduler.getRunning());
+        assertEquals(0, scheduler.getRunning("alice"));
+    }
+
+    @Test
+    void throwingProgressDoesntStopTheTask() {
+        TaskScheduler scheduler = new TaskScheduler(100, 1, () -> now);
+        CommandTask task = new CommandTask() {
+            private int done;
+
+            @Override
+            public boolean step() {
+                now += 2_000_000;
+                return ++done < 2;
+            }
+
+            @Override
+            public double getProgress() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        TaskHandle handle = scheduler.submit("alice", task, reported -> reported.getProgress());
+
+        assertEquals(2, scheduler.tick());
+        assertTrue(handle.isDone());
+        assertEquals(0, scheduler.getRunning());
+    }
+}
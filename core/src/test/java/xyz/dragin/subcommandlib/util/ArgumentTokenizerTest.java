@@ -0,0 +1,99 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArgumentTokenizerTest {
+    private static List<String> execute(String line) {
+        return ArgumentTokenizer.tokenize(line, false).getArguments();
+    }
+
+    @Test
+    void splitsOnSpaces() {
+        assertEquals(Arrays.asList("warp", "set", "home"), execute("warp  set home "));
+        assertTrue(execute("").isEmpty());
+    }
+
+    @Test
+    void quotesMakeOneArgument() {
+        assertEquals(Arrays.asList("set", "my home", "the arena"), execute("set \"my home\" 'the arena'"));
+        assertEquals(Arrays.asList("set", ""), execute("set \"\""));
+    }
+
+    @Test
+    void quotesOnlyOpenAtTheStartOfAnArgument() {
+        assertEquals(Arrays.asList("it's", "a", "\"test"), execute("it's a \"test"));
+        assertEquals(Arrays.asList("say", "\"hello", "world"), execute("say \"hello world"));
+        assertEquals(Arrays.asList("a\"b", "c\""), execute("a\"b c\""));
+    }
+
+    @Test
+    void backslashesEscape() {
+        assertEquals(Arrays.asList("my home", "c\\d", "\"quoted\""), execute("my\\ home c\\\\d \\\"quoted\\\""));
+        // Inside double quotes only a double quote or backslash can be escaped
+        assertEquals(Arrays.asList("say \"hi\" \\ \\n"), execute("\"say \\\"hi\\\" \\\\ \\n\""));
+        // Inside single quotes nothing can
+        assertEquals(Arrays.asList("a\\b"), execute("'a\\b'"));
+    }
+
+    @Test
+    void theFirstUnquotedDashesEndTheFlags() {
+        ArgumentView arguments = ArgumentTokenizer.tokenize("rm -f -- -file --", false).getArguments();
+        assertEquals(Arrays.asList("rm", "-f", "-file", "--"), arguments);
+        assertEquals(2, arguments.getEndOfFlags());
+        assertEquals(0, arguments.skip(3).getEndOfFlags());
+
+        arguments = ArgumentTokenizer.tokenize("rm \"--\" -file", false).getArguments();
+        assertEquals(Arrays.asList("rm", "--", "-file"), arguments);
+        assertEquals(-1, arguments.getEndOfFlags());
+    }
+
+    @Test
+    void splitArgumentsKeepEmptyOnes() {
+        String[] plain = {"warp", "", "home"};
+        TokenizedArguments tokenized = ArgumentTokenizer.tokenize(plain, false);
+        assertTrue(tokenized.isPlain());
+        assertEquals(Arrays.asList(plain), tokenized.getArguments());
+
+        tokenized = ArgumentTokenizer.tokenize(new String[] {"set", "\"my", "home\"", "", "x"}, false);
+        assertEquals(Arrays.asList("set", "my home", "", "x"), tokenized.getArguments());
+        assertEquals(Arrays.asList("rm", "-file"), ArgumentTokenizer.tokenize(new String[] {"rm", "--", "-file"}, false).getArguments());
+    }
+
+    @Test
+    void typingKeepsTheArgumentBeingTyped() {
+        assertEquals(Arrays.asList("warp", ""), ArgumentTokenizer.tokenize("warp ", true).getArguments());
+        assertEquals(Arrays.asList(""), ArgumentTokenizer.tokenize("", true).getArguments());
+        // A -- that's still being typed could become a flag
+        ArgumentView arguments = ArgumentTokenizer.tokenize("rm --", true).getArguments();
+        assertEquals(Arrays.asList("rm", "--"), arguments);
+        assertEquals(-1, arguments.getEndOfFlags());
+    }
+
+    @Test
+    void typingAQuoteKeepsItOpen() {
+        TokenizedArguments tokenized = ArgumentTokenizer.tokenize("set \"my ho", true);
+        assertEquals(Arrays.asList("set", "my ho"), tokenized.getArguments());
+        assertFalse(tokenized.isPlain());
+        assertTrue(tokenized.isQuoteOpen());
+        // Clients only replace what's after the last space
+        assertEquals("home\"", tokenized.toReplacement("my home"));
+
+        tokenized = ArgumentTokenizer.tokenize("set \"my", true);
+        assertEquals("\"my home\"", tokenized.toReplacement("my home"));
+    }
+
+    @Test
+    void suggestionsAreEscapedLikeTheyWereTyped() {
+        TokenizedArguments tokenized = ArgumentTokenizer.tokenize("set my\\ ho", true);
+        assertEquals(Arrays.asList("set", "my ho"), tokenized.getArguments());
+        assertFalse(tokenized.isQuoteOpen());
+        assertEquals("ho\\ sweet\\ home", tokenized.toReplacement("my ho sweet home"));
+
+        assertEquals("set", ArgumentTokenizer.tokenize("se", true).toReplacement("set"));
+    }
+}
@@ -0,0 +1,111 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncUtilsTest {
+    @Test
+    void callsTheSupplierOnTheExecutor() {
+        Queue<Runnable> executor = new ArrayDeque<>();
+        boolean[] called = {false};
+        CompletableFuture<String> result = AsyncUtils.composeAsync(() -> {
+            called[0] = true;
+            return CompletableFuture.completedFuture("done");
+        }, executor::add);
+
+        assertFalse(called[0]);
+        assertFalse(result.isDone());
+        executor.poll().run();
+        assertTrue(called[0]);
+        assertEquals("done", result.join());
+    }
+
+    @Test
+    void completesWithTheSuppliersFuture() {
+        Queue<Runnable> executor = new ArrayDeque<>();
+        CompletableFuture<String> started = new CompletableFuture<>();
+        CompletableFuture<String> result = AsyncUtils.composeAsync(() -> started, executor::add);
+        executor.poll().run();
+
+        assertFalse(result.isDone());
+        started.complete("later");
+        assertEquals("later", result.join());
+    }
+
+    @Test
+    void failsWhenTheSupplierThrows() {
+        Queue<Runnable> executor = new ArrayDeque<>();
+        CompletableFuture<String> result = AsyncUtils.composeAsync(() -> {
+            throw new IllegalStateException("broken");
+        }, executor::add);
+        executor.poll().run();
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void cancellingCancelsTheSuppliersFuture() {
+        Queue<Runnable> executor = new ArrayDeque<>();
+        CompletableFuture<String> started = new CompletableFuture<>();
+        CompletableFuture<String> result = AsyncUtils.composeAsync(() -> started, executor::add);
+        executor.poll().run();
+
+        result.cancel(true);
+        assertTrue(started.isCancelled());
+    }
+
+    @Test
+    void cancellingBeforeItRunsSkipsTheSupplier() {
+        Queue<Runnable> executor = new ArrayDeque<>();
+        boolean[] called = {false};
+        CompletableFuture<String> result = AsyncUtils.composeAsync(() -> {
+            called[0] = true;
+            return CompletableFuture.completedFuture("done");
+        }, executor::add);
+
+        result.cancel(true);
+        executor.poll().run();
+        assertFalse(called[0]);
+    }
+
+    @Test
+    void cancellingInterruptsABlockingSupplier() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch blocking = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            CompletableFuture<String> result = AsyncUtils.composeAsync(() -> {
+                blocking.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return CompletableFuture.completedFuture("too late");
+            }, executor);
+
+            assertTrue(blocking.await(5, TimeUnit.SECONDS));
+            result.cancel(true);
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectionIsThrown() {
+        assertThrows(RejectedExecutionException.class, () -> AsyncUtils.composeAsync(() -> CompletableFuture.completedFuture("done"), runnable -> {
+            throw new RejectedExecutionException();
+        }));
+    }
+}
@@ -0,0 +1,43 @@
+package xyz.dragin.subcommandlib.processor;
+
+import javax.lang.model.element.ExecutableElement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A command read from the annotations of one class, with its children
+ */
+final class CommandModel {
+    final String name;
+    final String path;
+    final List<String> aliases = new ArrayList<>();
+    final List<String> completions = new ArrayList<>();
+    final List<FlagModel> flags = new ArrayList<>();
+    final Map<String, CommandModel> children = new LinkedHashMap<>();
+    ExecutableElement method;
+    int id;
+
+    CommandModel(String name, String path) {
+        this.name = name;
+        this.path = path;
+    }
+
+    /**
+     * A flag or option allowed by a command
+     */
+    static final class FlagModel {
+        final String name;
+        final String next;
+        final boolean option;
+        final List<String> suggestions;
+
+        FlagModel(String name, String next, boolean option, List<String> suggestions) {
+            this.name = name;
+            this.next = next;
+            this.option = option;
+            this.suggestions = suggestions;
+        }
+    }
+}
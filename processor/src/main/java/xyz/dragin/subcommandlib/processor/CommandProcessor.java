@@ -0,0 +1,338 @@
+package xyz.dragin.subcommandlib.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates Subcommand trees from methods annotated with @Command, @Flag and @Option.
+ * For every class with @Command methods, a class named after it with "Tree" added is generated in the same package.
+ * Every name, alias, flag and completion becomes a constant, so nothing is looked up or reflected on at runtime.
+ * Invalid methods, names and duplicate names or aliases of the same parent are reported as compile errors.
+ */
+public final class CommandProcessor extends AbstractProcessor {
+    static final String PACKAGE = "xyz.dragin.subcommandlib.annotation.";
+    static final String COMMAND = PACKAGE + "Command";
+    static final String FLAG = PACKAGE + "Flag";
+    static final String FLAGS = PACKAGE + "Flags";
+    static final String OPTION = PACKAGE + "Option";
+    static final String OPTIONS = PACKAGE + "Options";
+    static final String CONTEXT = "xyz.dragin.subcommandlib.CommandContext";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(COMMAND, FLAG, FLAGS, OPTION, OPTIONS));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement command = processingEnv.getElementUtils().getTypeElement(COMMAND);
+        if (command == null) return false;
+        Set<? extends Element> commands = round.getElementsAnnotatedWith(command);
+
+        // Flags and options only mean something on a command
+        for (String name : Arrays.asList(FLAG, FLAGS, OPTION, OPTIONS)) {
+            TypeElement annotation = processingEnv.getElementUtils().getTypeElement(name);
+            if (annotation == null) continue;
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                if (!commands.contains(element)) error(element, "@" + annotation.getSimpleName() + " can only be used on a @Command method");
+            }
+        }
+
+        Set<TypeElement> classes = new LinkedHashSet<>();
+        for (Element element : commands) classes.add((TypeElement) element.getEnclosingElement());
+        for (TypeElement type : classes) {
+            // Declaration order, so the generated tree doesn't depend on the compiler
+            List<ExecutableElement> methods = new ArrayList<>();
+            for (Element element : type.getEnclosedElements()) {
+                if (commands.contains(element)) methods.add((ExecutableElement) element);
+            }
+            process(type, methods);
+        }
+        return true;
+    }
+
+    private void process(TypeElement type, List<ExecutableElement> methods) {
+        boolean valid = checkClass(type);
+        Map<String, CommandModel> bases = new LinkedHashMap<>();
+        Map<String, CommandModel> byPath = new HashMap<>();
+        boolean instance = false;
+
+        for (ExecutableElement method : methods) {
+            if (!checkMethod(method)) {
+                valid = false;
+                continue;
+            }
+            if (!method.getModifiers().contains(Modifier.STATIC)) instance = true;
+            AnnotationMirror annotation = mirror(method, COMMAND);
+            List<String> path = path(method, annotation);
+            if (path == null) {
+                valid = false;
+                continue;
+            }
+
+            // Parents that aren't declared themselves are added along the way
+            Map<String, CommandModel> siblings = bases;
+            CommandModel model = null;
+            StringBuilder written = new StringBuilder();
+            for (String name : path) {
+                if (written.length() > 0) written.append(' ');
+                written.append(name);
+                model = byPath.get(written.toString());
+                if (model == null) {
+                    model = new CommandModel(name, written.toString());
+                    byPath.put(model.path, model);
+                    siblings.put(name, model);
+                }
+                siblings = model.children;
+            }
+            if (model.method != null) {
+                error(method, "/" + model.path + " is already declared by " + model.method.getSimpleName() + "()");
+                valid = false;
+                continue;
+            }
+            model.method = method;
+            model.aliases.addAll(strings(annotation, "aliases"));
+            model.completions.addAll(strings(annotation, "completions"));
+            valid &= readFlags(method, model);
+        }
+
+        valid &= checkNames(bases.values());
+        if (!valid) return;
+        try {
+            write(type, bases, instance);
+        } catch (IOException e) {
+            error(type, "Couldn't generate the Subcommand tree: " + e);
+        }
+    }
+
+    private boolean checkClass(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.INTERFACE) {
+            error(type, "@Command methods must be declared in a class or interface");
+            return false;
+        }
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "Classes with @Command methods can't be private");
+                return false;
+            }
+            if (((TypeElement) element).getNestingKind() == NestingKind.LOCAL || ((TypeElement) element).getNestingKind() == NestingKind.ANONYMOUS) {
+                error(type, "Classes with @Command methods can't be local or anonymous");
+                return false;
+            }
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "Classes with @Command methods can't be generic");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean checkMethod(ExecutableElement method) {
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            error(method, "@Command methods can't be private");
+            return false;
+        }
+        TypeElement context = processingEnv.getElementUtils().getTypeElement(CONTEXT);
+        if (method.getParameters().size() != 1 || context == null
+                || !processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), context.asType())) {
+            error(method, "@Command methods must take only a CommandContext");
+            return false;
+        }
+        TypeKind result = method.getReturnType().getKind();
+        if (result != TypeKind.BOOLEAN && result != TypeKind.VOID) {
+            error(method, "@Command methods must return a boolean or nothing");
+            return false;
+        }
+        if (!method.getTypeParameters().isEmpty()) {
+            error(method, "@Command methods can't be generic");
+            return false;
+        }
+        TypeMirror runtime = processingEnv.getElementUtils().getTypeElement(RuntimeException.class.getName()).asType();
+        TypeMirror unchecked = processingEnv.getElementUtils().getTypeElement(Error.class.getName()).asType();
+        for (TypeMirror thrown : method.getThrownTypes()) {
+            if (!processingEnv.getTypeUtils().isSubtype(thrown, runtime) && !processingEnv.getTypeUtils().isSubtype(thrown, unchecked)) {
+                error(method, "@Command methods can't throw checked exceptions");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> path(ExecutableElement method, AnnotationMirror annotation) {
+        String value = string(annotation, "value").trim();
+        if (value.isEmpty()) {
+            error(method, "The path of a @Command can't be empty");
+            return null;
+        }
+        List<String> path = Arrays.asList(value.split(" +"));
+        for (String name : path) {
+            if (!checkName(method, name, "Command names")) return null;
+        }
+        return path;
+    }
+
+    private boolean checkName(Element element, String name, String what) {
+        if (name.isEmpty() || name.startsWith("-") || !name.equals(name.toLowerCase(Locale.ROOT))) {
+            error(element, what + " must be lowercase and can't be empty or start with a dash: \"" + name + "\"");
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.isWhitespace(name.charAt(i)) || name.charAt(i) == '"' || name.charAt(i) == '\'') {
+                error(element, what + " can't contain spaces or quotes: \"" + name + "\"");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readFlags(ExecutableElement method, CommandModel model) {
+        boolean valid = true;
+        for (AnnotationMirror annotation : repeated(method, FLAG, FLAGS)) {
+            model.flags.add(new CommandModel.FlagModel(string(annotation, "value"), string(annotation, "next"), false, Collections.<String>emptyList()));
+        }
+        for (AnnotationMirror annotation : repeated(method, OPTION, OPTIONS)) {
+            model.flags.add(new CommandModel.FlagModel(string(annotation, "value"), "", true, strings(annotation, "suggestions")));
+        }
+
+        Map<String, CommandModel.FlagModel> byName = new HashMap<>();
+        for (CommandModel.FlagModel flag : model.flags) {
+            if (flag.name.isEmpty() || flag.name.startsWith("-") || flag.name.indexOf(' ') >= 0) {
+                error(method, "Flag names can't be empty, start with a dash or contain spaces: \"" + flag.name + "\"");
+                valid = false;
+            } else if (byName.put(flag.name, flag) != null) {
+                error(method, "Flag \"" + flag.name + "\" is allowed more than once");
+                valid = false;
+            }
+        }
+        for (CommandModel.FlagModel flag : model.flags) {
+            for (int i = 0; i < flag.next.length(); i++) {
+                CommandModel.FlagModel next = byName.get(String.valueOf(flag.next.charAt(i)));
+                if (next == null || next.option) {
+                    error(method, "Flag \"" + flag.name + "\" suggests -" + flag.next.charAt(i) + ", which isn't a single character flag of the command");
+                    valid = false;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Checks that no two siblings share a name or alias, all the way down
+     */
+    private boolean checkNames(Iterable<CommandModel> siblings) {
+        boolean valid = true;
+        Map<String, CommandModel> taken = new HashMap<>();
+        for (CommandModel model : siblings) taken.put(model.name, model);
+        for (CommandModel model : siblings) {
+            for (String alias : model.aliases) {
+                if (!checkName(model.method, alias, "Aliases")) {
+                    valid = false;
+                    continue;
+                }
+                CommandModel other = taken.putIfAbsent(alias, model);
+                if (other != null) {
+                    error(model.method, "Alias \"" + alias + "\" of /" + model.path + " is already used by /" + other.path);
+                    valid = false;
+                }
+            }
+            valid &= checkNames(model.children.values());
+        }
+        return valid;
+    }
+
+    private void write(TypeElement type, Map<String, CommandModel> bases, boolean instance) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        StringBuilder simpleName = new StringBuilder();
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            simpleName.insert(0, simpleName.length() == 0 ? element.getSimpleName() : element.getSimpleName() + "_");
+        }
+        simpleName.append("Tree");
+        String name = packageName.isEmpty() ? simpleName.toString() : packageName + "." + simpleName;
+
+        String source = new TreeWriter(packageName, simpleName.toString(), type.getQualifiedName().toString(), instance).write(bases.values());
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(name, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        }
+    }
+
+    private AnnotationMirror mirror(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) return mirror;
+        }
+        return null;
+    }
+
+    /**
+     * Gets a repeatable annotation whether it's given once or several times
+     */
+    private List<AnnotationMirror> repeated(Element element, String annotation, String container) {
+        List<AnnotationMirror> output = new ArrayList<>();
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (name.equals(annotation)) output.add(mirror);
+            else if (name.equals(container)) {
+                for (Object value : list(mirror, "value")) output.add((AnnotationMirror) value);
+            }
+        }
+        return output;
+    }
+
+    private Object value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) return entry.getValue().getValue();
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private String string(AnnotationMirror mirror, String name) {
+        return (String) value(mirror, name);
+    }
+
+    private List<Object> list(AnnotationMirror mirror, String name) {
+        List<Object> output = new ArrayList<>();
+        for (Object value : (List<?>) value(mirror, name)) output.add(((AnnotationValue) value).getValue());
+        return output;
+    }
+
+    private List<String> strings(AnnotationMirror mirror, String name) {
+        List<String> output = new ArrayList<>();
+        for (Object value : list(mirror, name)) output.add((String) value);
+        return output;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
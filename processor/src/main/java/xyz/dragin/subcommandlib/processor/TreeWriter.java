@@ -0,0 +1,234 @@
+package xyz.dragin.subcommandlib.processor;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.TypeKind;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the source of a generated Subcommand tree.
+ * Each command becomes a nested class whose names, aliases, FlagTable and SuggestionIndex are static constants,
+ * and whose children are built once when the tree is created.
+ */
+final class TreeWriter {
+    private final String packageName;
+    private final String simpleName;
+    private final String handler;
+    private final boolean instance;
+    private final StringBuilder out = new StringBuilder();
+    private boolean usesFlags;
+    private boolean usesOptions;
+    private int nextId;
+
+    /**
+     * Initialization constructor
+     * @param packageName The package of the generated class
+     * @param simpleName The name of the generated class
+     * @param handler The name of the class declaring the commands
+     * @param instance Whether any command is an instance method, so the tree needs an instance to call them on
+     */
+    TreeWriter(String packageName, String simpleName, String handler, boolean instance) {
+        this.packageName = packageName;
+        this.simpleName = simpleName;
+        this.handler = handler;
+        this.instance = instance;
+    }
+
+    /**
+     * Writes the generated class
+     * @param bases The base commands
+     * @return The source code
+     */
+    String write(Collection<CommandModel> bases) {
+        List<CommandModel> all = new ArrayList<>();
+        for (CommandModel base : bases) number(base, all);
+        String parameter = instance ? handler + " handler" : "";
+        String argument = instance ? "handler" : "";
+
+        if (!packageName.isEmpty()) out.append("package ").append(packageName).append(";\n\n");
+        out.append("import org.bukkit.command.CommandSender;\n")
+                .append("import org.bukkit.plugin.java.JavaPlugin;\n")
+                .append("import xyz.dragin.subcommandlib.CommandContext;\n")
+                .append("import xyz.dragin.subcommandlib.Subcommand;\n")
+                .append("import xyz.dragin.subcommandlib.SubcommandLib;\n")
+                .append("import xyz.dragin.subcommandlib.options.CommandFlag;\n")
+                .append("import xyz.dragin.subcommandlib.options.CommandOption;\n")
+                .append("import xyz.dragin.subcommandlib.options.FlagTable;\n")
+                .append("import xyz.dragin.subcommandlib.util.SuggestionIndex;\n\n")
+                .append("import java.util.ArrayList;\n")
+                .append("import java.util.Arrays;\n")
+                .append("import java.util.Collections;\n")
+                .append("import java.util.List;\n\n");
+
+        out.append("/**\n * The Subcommand trees declared by {@link ").append(handler).append("}.\n")
+                .append(" * Generated by SubcommandLib's annotation processor; don't edit it, edit the annotations instead.\n */\n")
+                .append("@SuppressWarnings(\"all\")\n")
+                .append("public final class ").append(simpleName).append(" {\n")
+                .append("    private ").append(simpleName).append("() {}\n\n");
+
+        out.append("    /**\n     * Builds the base commands, along with every one of their children\n");
+        if (instance) out.append("     * @param handler The instance to run the commands on\n");
+        out.append("     * @return A new List of the base commands: ").append(names(bases)).append("\n     */\n")
+                .append("    public static List<Subcommand> create(").append(parameter).append(") {\n")
+                .append("        List<Subcommand> output = new ArrayList<>(").append(bases.size()).append(");\n");
+        for (CommandModel base : bases) out.append("        output.add(new Node").append(base.id).append("(").append(argument).append("));\n");
+        out.append("        return output;\n    }\n\n");
+
+        out.append("    /**\n     * Builds and registers the base commands with SubcommandLib.register()\n")
+                .append("     * @param plugin The JavaPlugin to register on the behalf of, usually \"this\"\n");
+        if (instance) out.append("     * @param handler The instance to run the commands on\n");
+        out.append("     */\n")
+                .append("    public static void register(JavaPlugin plugin").append(instance ? ", " + parameter : "").append(") {\n")
+                .append("        for (Subcommand command : create(").append(argument).append(")) SubcommandLib.register(command, plugin);\n")
+                .append("    }\n");
+
+        for (CommandModel model : all) node(model);
+        if (usesFlags) flagClass();
+        if (usesOptions) optionClass();
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void number(CommandModel model, List<CommandModel> all) {
+        model.id = nextId++;
+        all.add(model);
+        for (CommandModel child : model.children.values()) number(child, all);
+    }
+
+    private void node(CommandModel model) {
+        String name = "Node" + model.id;
+        out.append("\n    /**\n     * /").append(model.path).append("\n     */\n")
+                .append("    private static final class ").append(name).append(" implements Subcommand {\n");
+
+        if (!model.aliases.isEmpty()) {
+            out.append("        private static final List<String> ALIASES = Collections.unmodifiableList(Arrays.asList(").append(literals(model.aliases)).append("));\n");
+        }
+        if (!model.flags.isEmpty()) {
+            out.append("        private static final FlagTable FLAGS = FlagTable.of(Arrays.<CommandFlag>asList(");
+            for (int i = 0; i < model.flags.size(); i++) {
+                CommandModel.FlagModel flag = model.flags.get(i);
+                out.append(i == 0 ? "\n" : ",\n").append("                ");
+                if (flag.option) {
+                    usesOptions = true;
+                    out.append("new StaticOption(").append(literal(flag.name));
+                    for (String suggestion : flag.suggestions) out.append(", ").append(literal(suggestion));
+                    out.append(")");
+                } else {
+                    usesFlags = true;
+                    out.append("new StaticFlag(").append(literal(flag.name)).append(", ").append(literal(flag.next)).append(")");
+                }
+            }
+            out.append("));\n");
+        }
+        if (!model.completions.isEmpty()) {
+            out.append("        private static final SuggestionIndex COMPLETIONS = SuggestionIndex.of(Arrays.asList(").append(literals(model.completions)).append("));\n");
+        }
+        if (!model.aliases.isEmpty() || !model.flags.isEmpty() || !model.completions.isEmpty()) out.append("\n");
+
+        if (instance) out.append("        private final ").append(handler).append(" handler;\n");
+        if (!model.children.isEmpty()) out.append("        private final List<Subcommand> children;\n");
+        out.append("\n        private ").append(name).append("(").append(instance ? handler + " handler" : "").append(") {\n");
+        if (instance) out.append("            this.handler = handler;\n");
+        if (!model.children.isEmpty()) {
+            out.append("            this.children = Collections.unmodifiableList(Arrays.<Subcommand>asList(");
+            boolean first = true;
+            for (CommandModel child : model.children.values()) {
+                out.append(first ? "" : ", ").append("new Node").append(child.id).append("(").append(instance ? "handler" : "").append(")");
+                first = false;
+            }
+            out.append("));\n");
+        }
+        out.append("        }\n");
+
+        override("String getName()", "return " + literal(model.name) + ";");
+        if (!model.aliases.isEmpty()) override("List<String> getAliases()", "return ALIASES;");
+        if (!model.children.isEmpty()) override("List<Subcommand> getSubcommands()", "return children;");
+        override("boolean execute(CommandContext context)", execution(model));
+        override("List<String> tabComplete(CommandContext context, String typed)",
+                model.completions.isEmpty() ? "return Collections.emptyList();" : "return COMPLETIONS;");
+        if (!model.flags.isEmpty()) override("List<CommandFlag> getAllowedFlags(CommandSender sender)", "return FLAGS.getFlags();");
+        out.append("    }\n");
+    }
+
+    private String execution(CommandModel model) {
+        // Parents that only appear in a path can't be run by themselves
+        if (model.method == null) return "return false;";
+        String target = model.method.getModifiers().contains(Modifier.STATIC) ? handler : "handler";
+        String call = target + "." + model.method.getSimpleName() + "(context);";
+        return model.method.getReturnType().getKind() == TypeKind.VOID ? call + "\n            return true;" : "return " + call;
+    }
+
+    private void override(String signature, String body) {
+        out.append("\n        @Override\n        public ").append(signature).append(" {\n            ").append(body).append("\n        }\n");
+    }
+
+    private void flagClass() {
+        out.append("\n    private static final class StaticFlag extends CommandFlag {\n")
+                .append("        private final String next;\n\n")
+                .append("        private StaticFlag(String flag, String next) {\n")
+                .append("            super(flag);\n")
+                .append("            this.next = next;\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public List<Character> getSuggestedNext(List<CommandFlag> previous) {\n")
+                .append("            if (next.isEmpty()) return Collections.emptyList();\n")
+                .append("            List<Character> output = new ArrayList<>(next.length());\n")
+                .append("            for (int i = 0; i < next.length(); i++) {\n")
+                .append("                if (!given(previous, next.charAt(i))) output.add(next.charAt(i));\n")
+                .append("            }\n")
+                .append("            return output;\n")
+                .append("        }\n\n")
+                .append("        private static boolean given(List<CommandFlag> previous, char c) {\n")
+                .append("            for (CommandFlag flag : previous) {\n")
+                .append("                if (flag.getFlag().length() == 1 && flag.getFlag().charAt(0) == c) return true;\n")
+                .append("            }\n")
+                .append("            return false;\n")
+                .append("        }\n")
+                .append("    }\n");
+    }
+
+    private void optionClass() {
+        out.append("\n    private static final class StaticOption extends CommandOption {\n")
+                .append("        private final List<String> suggestions;\n\n")
+                .append("        private StaticOption(String flag, String... suggestions) {\n")
+                .append("            super(flag);\n")
+                .append("            this.suggestions = suggestions.length == 0 ? Collections.<String>emptyList() : SuggestionIndex.of(Arrays.asList(suggestions));\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public List<String> getSuggestedOptions() {\n")
+                .append("            return suggestions;\n")
+                .append("        }\n")
+                .append("    }\n");
+    }
+
+    private static String names(Collection<CommandModel> models) {
+        StringBuilder output = new StringBuilder();
+        for (CommandModel model : models) output.append(output.length() == 0 ? "" : ", ").append(model.name);
+        return output.toString();
+    }
+
+    private static String literals(List<String> values) {
+        StringBuilder output = new StringBuilder();
+        for (String value : values) output.append(output.length() == 0 ? "" : ", ").append(literal(value));
+        return output.toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder output = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': output.append("\\\""); break;
+                case '\\': output.append("\\\\"); break;
+                case '\n': output.append("\\n"); break;
+                case '\r': output.append("\\r"); break;
+                case '\t': output.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) output.append(String.format("\\u%04x", (int) c));
+                    else output.append(c);
+            }
+        }
+        return output.append('"').toString();
+    }
+}
@@ -0,0 +1,163 @@
+package xyz.dragin.subcommandlib;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.options.CommandOption;
+import xyz.dragin.subcommandlib.util.ParsedArguments;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Synthetic Subcommand trees, flags and senders for benchmarks
+ */
+public final class BenchmarkTrees {
+    private BenchmarkTrees() {}
+
+    /**
+     * Builds a tree where every node has the same amount of children.
+     * Children are only created when first asked for, so only the parts of the tree that are used exist.
+     * @param depth How many levels there are below the base command
+     * @param fanOut How many children each node above the deepest level has
+     * @param aliases How many aliases each child has
+     * @param flags The flags allowed by every node
+     * @return The base command, named "bench"
+     */
+    public static Subcommand tree(int depth, int fanOut, int aliases, List<CommandFlag> flags) {
+        return new SyntheticCommand("bench", Collections.emptyList(), depth, fanOut, aliases, flags);
+    }
+
+    /**
+     * Gets the names leading to the last child at every level, which is the slowest to find by searching a List
+     * @param depth How many levels to go down
+     * @param fanOut How many children each node has
+     * @return The names of the path
+     */
+    public static String[] path(int depth, int fanOut) {
+        String[] path = new String[depth];
+        for (int i = 0; i < depth; i++) path[i] = "node" + (fanOut - 1);
+        return path;
+    }
+
+    /**
+     * Creates allowed flags: single letters first (a to z), then longer names, with every fourth longer one being a CommandOption
+     * @param count The amount of flags
+     * @return The flags
+     */
+    public static List<CommandFlag> flags(int count) {
+        List<CommandFlag> flags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i < 26) flags.add(CommandFlag.simple(String.valueOf((char) ('a' + i))));
+            else if (i % 4 == 0) flags.add(CommandOption.simple("option-" + i));
+            else flags.add(CommandFlag.simple("flag-" + i));
+        }
+        return flags;
+    }
+
+    /**
+     * Builds a cluster of single character flags, e.g. -abcd
+     * @param length The amount of flags in the cluster, at most 26
+     * @return The cluster including the dash
+     */
+    public static String cluster(int length) {
+        StringBuilder builder = new StringBuilder("-");
+        for (int i = 0; i < length; i++) builder.append((char) ('a' + i));
+        return builder.toString();
+    }
+
+    /**
+     * Joins arrays of arguments
+     * @param parts The arrays to join
+     * @return One array containing every argument in order
+     */
+    public static String[] join(String[]... parts) {
+        List<String> output = new ArrayList<>();
+        for (String[] part : parts) Collections.addAll(output, part);
+        return output.toArray(new String[0]);
+    }
+
+    /**
+     * Creates a sender that has every permission and ignores messages
+     * @return The stub sender
+     */
+    public static CommandSender sender() {
+        return (CommandSender) Proxy.newProxyInstance(
+                BenchmarkTrees.class.getClassLoader(),
+                new Class<?>[]{CommandSender.class},
+                (proxy, method, arguments) -> {
+                    switch (method.getName()) {
+                        case "getName": return "Benchmark";
+                        case "hasPermission":
+                        case "isPermissionSet":
+                        case "isOp": return true;
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == arguments[0];
+                        case "toString": return "BenchmarkSender";
+                        default: return null;
+                    }
+                }
+        );
+    }
+
+    private static final class SyntheticCommand implements Subcommand {
+        private final String name;
+        private final List<String> aliases;
+        private final int depth;
+        private final int fanOut;
+        private final int aliasCount;
+        private final List<CommandFlag> flags;
+        private List<Subcommand> children;
+
+        private SyntheticCommand(String name, List<String> aliases, int depth, int fanOut, int aliasCount, List<CommandFlag> flags) {
+            this.name = name;
+            this.aliases = aliases;
+            this.depth = depth;
+            this.fanOut = fanOut;
+            this.aliasCount = aliasCount;
+            this.flags = flags;
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return name;
+        }
+
+        @Override
+        public @NotNull List<String> getAliases() {
+            return aliases;
+        }
+
+        @Override
+        public @NotNull List<Subcommand> getSubcommands() {
+            if (depth == 0) return Collections.emptyList();
+            if (children == null) {
+                List<Subcommand> children = new ArrayList<>(fanOut);
+                for (int i = 0; i < fanOut; i++) {
+                    List<String> aliases = new ArrayList<>(aliasCount);
+                    for (int j = 0; j < aliasCount; j++) aliases.add("node" + i + "-alias" + j);
+                    children.add(new SyntheticCommand("node" + i, aliases, depth - 1, fanOut, aliasCount, flags));
+                }
+                this.children = children;
+            }
+            return children;
+        }
+
+        @Override
+        public boolean execute(@NotNull CommandSender sender, @NotNull ParsedArguments arguments) {
+            return arguments.size() > 0;
+        }
+
+        @Override
+        public @NotNull List<String> tabComplete(@NotNull CommandSender sender, @NotNull ParsedArguments arguments, String typed) {
+            return Collections.singletonList("player");
+        }
+
+        @Override
+        public @NotNull List<CommandFlag> getAllowedFlags(@NotNull CommandSender sender) {
+            return flags;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package xyz.dragin.subcommandlib;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.dragin.subcommandlib.completion.CompletionCache;
+import xyz.dragin.subcommandlib.completion.CompletionThrottle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full execution and tab completion through a Dispatcher, from the base command down to the deepest level
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatchBenchmark {
+    @Param({"1", "4", "8"})
+    public int depth;
+
+    @Param({"4", "64"})
+    public int fanOut;
+
+    @Param({"0", "8"})
+    public int aliases;
+
+    @Param({"4", "32"})
+    public int flags;
+
+    @Param({"true", "false"})
+    public boolean completionCache;
+
+    @Param({"true", "false"})
+    public boolean metrics;
+
+    private Dispatcher dispatcher;
+    private Sender sender;
+    private String[] executeArgs;
+    private String[] completeArgs;
+
+    @Setup
+    public void setup() {
+        SubcommandLib.setCompletionCache(completionCache ? new CompletionCache(1024, 4096, 10_000) : new CompletionCache(0, 0, 0));
+        SubcommandLib.getMetrics().setEnabled(metrics);
+        // One sender completing millions of times per second would only be answered from its last result
+        SubcommandLib.setCompletionThrottle(new CompletionThrottle(0, 0));
+        dispatcher = new Dispatcher(BenchmarkTrees.tree(depth, fanOut, aliases, BenchmarkTrees.flags(flags)));
+        sender = BukkitSender.of(BenchmarkTrees.sender());
+        String[] path = BenchmarkTrees.path(depth, fanOut);
+        executeArgs = BenchmarkTrees.join(path, new String[]{"player", BenchmarkTrees.cluster(Math.min(flags, 8)), "argument"});
+        completeArgs = BenchmarkTrees.join(path, new String[]{"player", ""});
+    }
+
+    @Benchmark
+    public boolean execute() {
+        return dispatcher.execute(sender, executeArgs);
+    }
+
+    @Benchmark
+    public List<String> tabComplete() {
+        return dispatcher.tabComplete(sender, completeArgs);
+    }
+}
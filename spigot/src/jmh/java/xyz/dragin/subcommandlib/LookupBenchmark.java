@@ -0,0 +1,43 @@
+package xyz.dragin.subcommandlib;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.dragin.subcommandlib.util.SubcommandUtils;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding a child by name or alias, by searching getSubcommands() and with a compiled CommandNode
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LookupBenchmark {
+    @Param({"8", "64", "512"})
+    public int fanOut;
+
+    @Param({"0", "8"})
+    public int aliases;
+
+    private Subcommand parent;
+    private CommandNode node;
+    private String name;
+
+    @Setup
+    public void setup() {
+        parent = BenchmarkTrees.tree(1, fanOut, aliases, Collections.emptyList());
+        node = CommandNode.compile(parent);
+        // The last alias of the last child is the slowest to find by searching
+        name = aliases == 0 ? "node" + (fanOut - 1) : "node" + (fanOut - 1) + "-alias" + (aliases - 1);
+    }
+
+    @Benchmark
+    public Subcommand searchSubcommands() {
+        return SubcommandUtils.contains(parent, name) ? SubcommandUtils.findSubcommandByName(parent, name) : null;
+    }
+
+    @Benchmark
+    public CommandNode compiledNode() {
+        return node.getChild(name);
+    }
+}
@@ -0,0 +1,41 @@
+package xyz.dragin.subcommandlib.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Narrowing suggestions down by what's typed, one by one and with a SuggestionIndex
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NarrowBenchmark {
+    @Param({"100", "10000"})
+    public int suggestions;
+
+    @Param({"", "sugg", "suggestion-12"})
+    public String typed;
+
+    private List<String> list;
+    private SuggestionIndex index;
+
+    @Setup
+    public void setup() {
+        list = new ArrayList<>(suggestions);
+        for (int i = 0; i < suggestions; i++) list.add("suggestion-" + i);
+        index = SuggestionIndex.of(list);
+    }
+
+    @Benchmark
+    public List<String> narrowList() {
+        return TabUtils.narrow(list, typed);
+    }
+
+    @Benchmark
+    public List<String> narrowIndex() {
+        return index.narrow(typed);
+    }
+}
@@ -0,0 +1,57 @@
+package xyz.dragin.subcommandlib.util;
+
+import io.vavr.control.Either;
+import org.openjdk.jmh.annotations.*;
+import xyz.dragin.subcommandlib.BenchmarkTrees;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.options.FlagTable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing flags, clustered short flags and options out of arguments
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParseBenchmark {
+    @Param({"4", "32", "128"})
+    public int flags;
+
+    @Param({"1", "8"})
+    public int clusterLength;
+
+    private List<CommandFlag> allowedFlags;
+    private FlagTable table;
+    private List<String> arguments;
+
+    @Setup
+    public void setup() {
+        allowedFlags = BenchmarkTrees.flags(flags);
+        table = FlagTable.of(allowedFlags);
+        String longFlag = allowedFlags.get(allowedFlags.size() - 1).toString();
+        arguments = Arrays.asList("first", BenchmarkTrees.cluster(Math.min(clusterLength, flags)), longFlag, "value", "--unknown", "last");
+    }
+
+    @Benchmark
+    public List<Either<String, CommandFlag>> parseFlagsFromList() {
+        return TabUtils.parseFlags(arguments, allowedFlags);
+    }
+
+    @Benchmark
+    public List<Either<String, CommandFlag>> parseFlagsFromTable() {
+        return TabUtils.parseFlags(arguments, table);
+    }
+
+    @Benchmark
+    public ParsedArguments parseFromTable() {
+        return TabUtils.parse(arguments, table);
+    }
+
+    @Benchmark
+    public FlagTable buildTable() {
+        return FlagTable.of(allowedFlags);
+    }
+}
@@ -0,0 +1,69 @@
+package xyz.dragin.subcommandlib;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.util.ParsedArguments;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A Subcommand that's executed off the main thread, for heavy commands (e.g. bulk lookups or exports) that would otherwise freeze the server.
+ * Tab completion still happens on the main thread; see {@link Subcommand#tabCompleteAsync} for that.
+ * Most of the Bukkit API isn't thread safe, so anything that uses it should be run through the mainThread Executor.
+ */
+public interface AsyncSubcommand extends Subcommand, AsyncCommandHandler {
+    /**
+     * What should be done when the command is executed. Runs on the Executor from getExecutor().
+     * Default behavior: Calls execute(CommandSender, ParsedArguments) on the same thread.
+     * @param sender The CommandSender running the command
+     * @param arguments All String (required), CommandFlag and CommandOption (optional) arguments passed to the command
+     * @param mainThread Runs things on the main thread, e.g. mainThread.execute(() -> player.teleport(location))
+     * @return False if and only if the command cannot be run by itself (parent to subcommands only)
+     */
+    default boolean execute(@NotNull CommandSender sender, @NotNull ParsedArguments arguments, @NotNull Executor mainThread) {
+        return execute(sender, arguments);
+    }
+
+    /**
+     * What should be done when the command is executed, using a context that remembers anything depending on the sender.
+     * Runs on the Executor from getExecutor(); use {@link CommandContext#getMainThread()} for anything that uses the Bukkit API.
+     * Default behavior: Calls execute(CommandSender, ParsedArguments, Executor) on the same thread.
+     * @param context The sender, parsed arguments and everything else about this execution
+     * @return False if and only if the command cannot be run by itself (parent to subcommands only)
+     */
+    @Override
+    default boolean execute(@NotNull CommandContext context) {
+        return execute(BukkitSender.unwrap(context.getSender()), context.getArguments(), context.getMainThread());
+    }
+
+    /**
+     * The maximum amount of asynchronous commands a sender can have running when this one is started, including this one.
+     * Default behavior: Returns 1, so a sender has to wait for their last command to finish.
+     * @param sender The CommandSender running the command
+     * @return The maximum amount of running commands, or 0 for no limit
+     */
+    default int getMaxRunning(@NotNull CommandSender sender) {
+        return 1;
+    }
+
+    /**
+     * The maximum amount of asynchronous commands a sender can have running, as the Dispatcher finds it.
+     * Default behavior: Calls getMaxRunning(CommandSender).
+     * @param sender The sender running the command
+     * @return The maximum amount of running commands, or 0 for no limit
+     */
+    @Override
+    default int getMaxRunning(@NotNull Sender sender) {
+        return getMaxRunning(BukkitSender.unwrap(sender));
+    }
+
+    /**
+     * Where the command is executed.
+     * Default behavior: Returns SubcommandLib.getAsyncExecutor().
+     * @return The Executor to run the command on
+     */
+    @Override
+    @NotNull default Executor getExecutor() {
+        return SubcommandLib.getAsyncExecutor();
+    }
+}
@@ -0,0 +1,300 @@
+package xyz.dragin.subcommandlib;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import xyz.dragin.subcommandlib.batch.BatchResult;
+import xyz.dragin.subcommandlib.batch.LineResult;
+import xyz.dragin.subcommandlib.task.CommandTask;
+import xyz.dragin.subcommandlib.task.TaskHandle;
+import xyz.dragin.subcommandlib.util.ArgumentTokenizer;
+import xyz.dragin.subcommandlib.util.ArgumentView;
+import xyz.dragin.subcommandlib.util.ConcurrencyLimiter;
+import xyz.dragin.subcommandlib.util.SubcommandUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs a batch of command lines as a CommandTask, one line per step.
+ * Every line is tokenized and resolved before the first one runs, and lines for the same subcommand share its allowed flags.
+ * Asynchronous lines and the tasks of TaskSubcommands finish later; when keeping the order, the batch stops stepping until they do,
+ * then is submitted again to carry on with the next line.
+ * Lines are measured and recorded through {@link Dispatcher}, like commands typed by players.
+ */
+final class BatchExecution implements CommandTask {
+    private final Platform platform;
+    private final CommandSender sender;
+    private final boolean keepOrder;
+    private final Prepared[] order;
+    private final LineResult[] results;
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+    private final CompletableFuture<BatchResult> result = new CompletableFuture<>();
+    private int next;
+    private boolean finished;
+    private TaskHandle handle;
+    private CompletableFuture<?> waiting;
+
+    private BatchExecution(Platform platform, CommandSender sender, boolean keepOrder, Prepared[] order, LineResult[] results) {
+        this.platform = platform;
+        this.sender = sender;
+        this.keepOrder = keepOrder;
+        this.order = order;
+        this.results = results;
+    }
+
+    /**
+     * Prepares every line and starts running them through SubcommandLib's task scheduler
+     * @param plugin The plugin to schedule through
+     * @param sender The sender running the lines
+     * @param lines The lines, each a command with or without its slash
+     * @param keepOrder Whether to run the lines in order, instead of one subcommand after another
+     * @return The results, once every line has run
+     */
+    static CompletableFuture<BatchResult> start(Plugin plugin, CommandSender sender, List<String> lines, boolean keepOrder) {
+        BukkitPlatform platform = new BukkitPlatform(plugin);
+        Sender wrapped = BukkitSender.of(sender);
+        // Unknown commands already have their result, the rest are filled in as they run
+        List<LineResult> initial = new ArrayList<>(lines.size());
+        List<Prepared> prepared = new ArrayList<>(lines.size());
+        Map<CommandNode, List<Prepared>> groups = new LinkedHashMap<>();
+        Map<CommandNode, CommandContext> contexts = new LinkedHashMap<>();
+        Map<CommandNode, Boolean> permitted = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            ArgumentView arguments = ArgumentTokenizer.tokenize(line.startsWith("/") ? line.substring(1) : line, false).getArguments();
+            SubcommandLib.Registration registration = arguments.isEmpty() ? null : SubcommandLib.findRegistration(arguments.get(0));
+            if (registration == null) {
+                initial.add(new LineResult(i + 1, lines.get(i), LineResult.Status.UNKNOWN_COMMAND, null, null, 0));
+                continue;
+            }
+            // Checked once per base command, like Bukkit does before running it; silently, since the results say why
+            CommandNode node = registration.node;
+            if (!permitted.computeIfAbsent(node, key -> registration.command.testPermissionSilent(sender))) {
+                initial.add(new LineResult(i + 1, lines.get(i), LineResult.Status.NO_PERMISSION, node.getPath(), null, 0));
+                continue;
+            }
+
+            // Pass to a nested subcommand if needed
+            ArgumentView rest = arguments.skip(1);
+            for (String name : rest) {
+                CommandNode child = node.getChild(name);
+                if (child == null) break;
+                node = child;
+            }
+            ArgumentView raw = arguments.skip(node.getDepth() + 1);
+            CommandContext group = contexts.get(node);
+            CommandContext context = group == null ? new CommandContext(wrapped, node, raw, platform) : new CommandContext(group, raw);
+            if (group == null) contexts.put(node, context);
+
+            Prepared entry = new Prepared(initial.size(), i + 1, lines.get(i), context);
+            initial.add(null);
+            prepared.add(entry);
+            groups.computeIfAbsent(node, key -> new ArrayList<>()).add(entry);
+        }
+
+        Prepared[] order = new Prepared[prepared.size()];
+        if (keepOrder) prepared.toArray(order);
+        else {
+            int position = 0;
+            for (List<Prepared> group : groups.values()) {
+                for (Prepared entry : group) order[position++] = entry;
+            }
+        }
+
+        BatchExecution execution = new BatchExecution(platform, sender, keepOrder, order, initial.toArray(new LineResult[0]));
+        if (order.length == 0) {
+            execution.result.complete(new BatchResult(initial));
+            return execution.result;
+        }
+        execution.submit();
+        // Cancelling the results cancels the rest of the batch
+        execution.result.whenComplete((ignored, error) -> {
+            if (execution.result.isCancelled()) execution.cancel();
+        });
+        return execution.result;
+    }
+
+    /**
+     * Runs the next lines through SubcommandLib's task scheduler
+     */
+    private void submit() {
+        TaskHandle submitted;
+        synchronized (this) {
+            if (finished) return;
+            submitted = SubcommandLib.getTaskScheduler().submit(SubcommandUtils.getSenderKey(sender), this, null);
+            handle = submitted;
+        }
+        platform.startTicking();
+        submitted.getCompletion().whenComplete((ignored, error) -> stopped(error));
+    }
+
+    /**
+     * Carries on once the line being waited for is done, or finishes if there's nothing to wait for
+     * @param error Why the steps stopped, e.g. a CancellationException, or null if they stopped by themselves
+     */
+    private void stopped(Throwable error) {
+        CompletableFuture<?> line;
+        synchronized (this) {
+            line = waiting;
+            waiting = null;
+        }
+        if (line == null || error != null) finish();
+        // Picks up on the main thread, like the next step would have
+        else line.whenComplete((ignored, lineError) -> platform.getMainThread().execute(this::submit));
+    }
+
+    private void cancel() {
+        TaskHandle current;
+        synchronized (this) {
+            current = handle;
+        }
+        // Otherwise it's waiting for a line, so nothing would finish it
+        if (current == null || !current.cancel()) finish();
+    }
+
+    @Override
+    public synchronized boolean step() {
+        if (finished || next >= order.length) return false;
+        CompletableFuture<?> line = run(order[next++]);
+        // Stops stepping without using up the tick, until the line is done
+        if (keepOrder && line != null && !line.isDone()) {
+            waiting = line;
+            return false;
+        }
+        return next < order.length;
+    }
+
+    @Override
+    public synchronized double getProgress() {
+        return order.length == 0 ? 1 : (double) next / order.length;
+    }
+
+    /**
+     * Runs a line
+     * @param entry The line
+     * @return A future that completes once the line's result is in, or null if it already is
+     */
+    private CompletableFuture<?> run(Prepared entry) {
+        CommandHandler subcommand = entry.context.getSubcommand();
+        if (subcommand instanceof AsyncCommandHandler) return runAsync(entry, (AsyncCommandHandler) subcommand);
+        if (subcommand instanceof TaskSubcommand) return runTask(entry, (TaskSubcommand) subcommand);
+        results[entry.index] = execute(entry);
+        return null;
+    }
+
+    private CompletableFuture<?> runAsync(Prepared entry, AsyncCommandHandler subcommand) {
+        // Parsed here, since getAllowedFlags() may not be safe to call off the main thread
+        entry.context.getArguments();
+        // Limited like any other execution of the sender's
+        ConcurrencyLimiter running = SubcommandCore.getRunning();
+        if (!running.tryAcquire(sender, subcommand.getMaxRunning(entry.context.getSender()))) {
+            results[entry.index] = entry.result(LineResult.Status.REJECTED, null, 0);
+            return null;
+        }
+        try {
+            CompletableFuture<?> line = CompletableFuture.supplyAsync(() -> execute(entry), subcommand.getExecutor())
+                    .handle((result, error) -> {
+                        running.release(sender);
+                        results[entry.index] = result != null ? result : entry.result(LineResult.Status.FAILED, unwrap(error), 0);
+                        return null;
+                    });
+            pending.add(line);
+            return line;
+        } catch (RejectedExecutionException e) {
+            running.release(sender);
+            results[entry.index] = entry.result(LineResult.Status.REJECTED, e, 0);
+            return null;
+        }
+    }
+
+    /**
+     * Starts the task of a TaskSubcommand, whose line only gets its result once the task is done
+     */
+    private CompletableFuture<?> runTask(Prepared entry, TaskSubcommand subcommand) {
+        long start = System.nanoTime();
+        CommandTask task;
+        try {
+            task = Dispatcher.measure(entry.context, entry.arguments(), () -> subcommand.executeTask(entry.context), Objects::nonNull);
+        } catch (Throwable t) {
+            results[entry.index] = entry.result(LineResult.Status.FAILED, t, System.nanoTime() - start);
+            return null;
+        }
+        if (task == null) {
+            results[entry.index] = entry.result(LineResult.Status.CANNOT_RUN, null, System.nanoTime() - start);
+            return null;
+        }
+
+        // Submitted without progress reports, since the results say how it went
+        TaskHandle taskHandle = SubcommandLib.getTaskScheduler().submit(SubcommandUtils.getSenderKey(sender), task, null);
+        CompletableFuture<?> line = taskHandle.getCompletion().handle((ignored, error) -> {
+            results[entry.index] = entry.result(error == null ? LineResult.Status.SUCCESS : LineResult.Status.FAILED, unwrap(error), System.nanoTime() - start);
+            return null;
+        });
+        pending.add(line);
+        return line;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static LineResult execute(Prepared entry) {
+        long start = System.nanoTime();
+        try {
+            boolean success = Dispatcher.measure(entry.context, entry.arguments(), () -> entry.context.getSubcommand().execute(entry.context), Boolean::booleanValue);
+            return entry.result(success ? LineResult.Status.SUCCESS : LineResult.Status.CANNOT_RUN, null, System.nanoTime() - start);
+        } catch (Throwable t) {
+            return entry.result(LineResult.Status.FAILED, t, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Marks every line that hasn't run as skipped, then completes the results once all asynchronous lines and tasks are done
+     */
+    private void finish() {
+        CompletableFuture<?>[] lines;
+        synchronized (this) {
+            if (finished) return;
+            finished = true;
+            for (int i = next; i < order.length; i++) results[order[i].index] = order[i].result(LineResult.Status.SKIPPED, null, 0);
+            lines = pending.toArray(new CompletableFuture<?>[0]);
+        }
+        CompletableFuture.allOf(lines).whenComplete((ignored, error) -> result.complete(new BatchResult(Arrays.asList(results))));
+    }
+
+    private static final class Prepared {
+        private final int index;
+        private final int line;
+        private final String command;
+        private final CommandContext context;
+
+        private Prepared(int index, int line, String command, CommandContext context) {
+            this.index = index;
+            this.line = line;
+            this.command = command;
+            this.context = context;
+        }
+
+        /**
+         * Gets the arguments after the base command's name, split by spaces like Bukkit does, so recorded lines replay like typed ones
+         */
+        private String[] arguments() {
+            String trimmed = command.trim();
+            String[] words = (trimmed.startsWith("/") ? trimmed.substring(1) : trimmed).split(" ");
+            return Arrays.copyOfRange(words, 1, words.length);
+        }
+
+        private LineResult result(LineResult.Status status, Throwable error, long nanos) {
+            return new LineResult(line, command, status, context.getPath(), error, nanos);
+        }
+    }
+}
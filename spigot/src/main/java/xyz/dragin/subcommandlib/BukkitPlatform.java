@@ -0,0 +1,50 @@
+package xyz.dragin.subcommandlib;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+/**
+ * The Platform of commands registered through a plugin, scheduling and ticking tasks on the server's main thread and logging to the plugin's logger
+ */
+public final class BukkitPlatform implements Platform {
+    private final Plugin plugin;
+    private final Executor mainThread;
+
+    /**
+     * Initialization constructor
+     * @param plugin The plugin to schedule through
+     * @throws IllegalArgumentException If the plugin is null, since nothing could be scheduled
+     */
+    public BukkitPlatform(@NotNull Plugin plugin) {
+        if (plugin == null) throw new IllegalArgumentException("A plugin is needed to schedule through");
+        this.plugin = plugin;
+        this.mainThread = runnable -> {
+            if (Bukkit.isPrimaryThread()) runnable.run();
+            else if (plugin.isEnabled()) Bukkit.getScheduler().runTask(plugin, runnable);
+        };
+    }
+
+    /**
+     * Gets the plugin scheduled through
+     * @return The plugin
+     */
+    @NotNull public Plugin getPlugin() { return plugin; }
+
+    @Override
+    @NotNull public Executor getMainThread() { return mainThread; }
+
+    @Override
+    @NotNull public Logger getLogger() { return plugin.getLogger(); }
+
+    /**
+     * Ticks the task scheduler with a repeating task of the plugin, which stops once there are no tasks left
+     */
+    @Override
+    public void startTicking() {
+        SubcommandLib.startTicking(plugin);
+    }
+}
@@ -0,0 +1,93 @@
+package xyz.dragin.subcommandlib;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.util.SubcommandUtils;
+
+/**
+ * Adapts Bukkit's CommandSender to the core module's {@link Sender}, so Subcommands can be dispatched by the core Dispatcher.
+ * Subcommand's methods taking a CommandSender get it back with {@link #unwrap(Sender)}.
+ */
+public final class BukkitSender implements Sender {
+    private final CommandSender sender;
+
+    private BukkitSender(CommandSender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Wraps a CommandSender
+     * @param sender The CommandSender
+     * @return A Sender for it
+     */
+    @NotNull public static BukkitSender of(@NotNull CommandSender sender) {
+        return new BukkitSender(sender);
+    }
+
+    /**
+     * Gets the CommandSender behind a Sender, e.g. the one running a Subcommand from {@link CommandContext#getSender()}
+     * @param sender A Sender from {@link #of(CommandSender)}, or any other whose handle is a CommandSender
+     * @return The CommandSender
+     * @throws IllegalArgumentException If the Sender isn't a CommandSender, e.g. when a Subcommand is dispatched on another platform
+     */
+    @NotNull public static CommandSender unwrap(@NotNull Sender sender) {
+        if (sender instanceof BukkitSender) return ((BukkitSender) sender).sender;
+        Object handle = sender.getHandle();
+        if (handle instanceof CommandSender) return (CommandSender) handle;
+        throw new IllegalArgumentException(sender + " isn't a Bukkit CommandSender");
+    }
+
+    /**
+     * Gets the wrapped CommandSender
+     * @return The CommandSender
+     */
+    @NotNull public CommandSender getCommandSender() { return sender; }
+
+    @Override
+    @NotNull public String getName() {
+        return sender.getName();
+    }
+
+    @Override
+    public void sendMessage(@NotNull String message) {
+        sender.sendMessage(message);
+    }
+
+    @Override
+    public boolean hasPermission(@NotNull String permission) {
+        return sender.hasPermission(permission);
+    }
+
+    /**
+     * Gets the key from {@link SubcommandUtils#getSenderKey(CommandSender)}
+     * @return The UUID of an entity (e.g. a player), otherwise the name of the sender
+     */
+    @Override
+    @NotNull public Object getKey() {
+        return SubcommandUtils.getSenderKey(sender);
+    }
+
+    /**
+     * Gets the wrapped CommandSender
+     * @return The CommandSender
+     */
+    @Override
+    @NotNull public Object getHandle() {
+        return sender;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof BukkitSender && ((BukkitSender) obj).sender == sender;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(sender);
+    }
+
+    @Override
+    public String toString() {
+        return "BukkitSender{" + sender.getName() + "}";
+    }
+}
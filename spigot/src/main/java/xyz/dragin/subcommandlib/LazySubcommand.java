@@ -0,0 +1,195 @@
+package xyz.dragin.subcommandlib;
+
+import io.vavr.control.Either;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.util.ParsedArguments;
+
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A Subcommand that's only created once it's needed, for trees with many children that are rarely used (e.g. one per warp or kit).
+ * Its name and aliases are given up front, so its parent can find it and suggest it without creating it.
+ * The Subcommand is created the first time it's executed, tab completed or asked for its children or flags, then remembered.
+ * <p>
+ * Remembering it softly lets the garbage collector discard it when memory runs low, creating it again the next time it's needed,
+ * so only do that for Subcommands that don't keep anything that has to last. Once it's created again, its children are compiled again
+ * from the new Subcommand's getSubcommands().
+ * Return the same LazySubcommands from the parent's getSubcommands() each time, or they'll be created again once the parent is recompiled.
+ */
+public final class LazySubcommand implements Subcommand, LazyCommandHandler {
+    private final String name;
+    private final List<String> aliases;
+    private final Supplier<? extends Subcommand> supplier;
+    private final boolean soft;
+    private volatile Subcommand instance;
+    private volatile SoftReference<Subcommand> reference;
+    private volatile int loads;
+
+    /**
+     * Initialization constructor for a Subcommand that's remembered for good once created
+     * @param name The name of the Subcommand, which it must also return from getName()
+     * @param aliases The aliases of the Subcommand
+     * @param supplier Creates the Subcommand
+     */
+    public LazySubcommand(@NotNull String name, @NotNull List<String> aliases, @NotNull Supplier<? extends Subcommand> supplier) {
+        this(name, aliases, supplier, false);
+    }
+
+    /**
+     * Initialization constructor
+     * @param name The name of the Subcommand, which it must also return from getName()
+     * @param aliases The aliases of the Subcommand
+     * @param supplier Creates the Subcommand
+     * @param soft Whether the Subcommand can be discarded when memory runs low, then created again when it's needed
+     */
+    public LazySubcommand(@NotNull String name, @NotNull List<String> aliases, @NotNull Supplier<? extends Subcommand> supplier, boolean soft) {
+        this.name = name;
+        this.aliases = Collections.unmodifiableList(aliases);
+        this.supplier = supplier;
+        this.soft = soft;
+    }
+
+    /**
+     * Gets the Subcommand, creating it if it hasn't been yet (or was discarded)
+     * @return The Subcommand
+     * @throws IllegalStateException If the supplier gave null or a Subcommand with a different name
+     */
+    @Override
+    @NotNull public Subcommand get() {
+        Subcommand loaded = getIfLoaded();
+        if (loaded != null) return loaded;
+        synchronized (this) {
+            loaded = getIfLoaded();
+            if (loaded != null) return loaded;
+            loaded = supplier.get();
+            if (loaded == null) throw new IllegalStateException("The supplier of " + name + " gave null");
+            if (!name.equals(loaded.getName())) throw new IllegalStateException("The supplier of " + name + " gave a Subcommand named " + loaded.getName());
+            if (soft) reference = new SoftReference<>(loaded);
+            else instance = loaded;
+            loads++;
+            return loaded;
+        }
+    }
+
+    /**
+     * Gets the Subcommand without creating it
+     * @return The Subcommand, or null if it hasn't been created yet or was discarded
+     */
+    @Override
+    @Nullable public Subcommand getIfLoaded() {
+        Subcommand loaded = instance;
+        if (loaded != null) return loaded;
+        SoftReference<Subcommand> softly = reference;
+        return softly == null ? null : softly.get();
+    }
+
+    /**
+     * Gets how many times the Subcommand has been created, which only goes past 1 if it's remembered softly and was discarded
+     * @return The amount of times the supplier was called successfully
+     */
+    @Override
+    public int getLoads() {
+        return loads;
+    }
+
+    /**
+     * Whether the Subcommand has been created and not discarded since
+     * @return True if using it won't create it
+     */
+    public boolean isLoaded() {
+        return getIfLoaded() != null;
+    }
+
+    @Override
+    @NotNull public String getName() { return name; }
+
+    @Override
+    @NotNull public List<String> getAliases() { return aliases; }
+
+    @Override
+    @NotNull public List<Subcommand> getSubcommands() {
+        return get().getSubcommands();
+    }
+
+    @Override
+    @NotNull public List<Subcommand> getChildren() {
+        return get().getChildren();
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull List<Either<String, CommandFlag>> arguments) {
+        return get().execute(sender, arguments);
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull ParsedArguments arguments) {
+        return get().execute(sender, arguments);
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandContext context) {
+        return get().execute(context);
+    }
+
+    @Override
+    @NotNull public List<String> tabComplete(@NotNull CommandSender sender, @NotNull List<Either<String, CommandFlag>> arguments, String typed) {
+        return get().tabComplete(sender, arguments, typed);
+    }
+
+    @Override
+    @NotNull public List<String> tabComplete(@NotNull CommandSender sender, @NotNull ParsedArguments arguments, String typed) {
+        return get().tabComplete(sender, arguments, typed);
+    }
+
+    @Override
+    @NotNull public List<String> tabComplete(@NotNull CommandContext context, String typed) {
+        return get().tabComplete(context, typed);
+    }
+
+    @Override
+    @NotNull public CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandSender sender, @NotNull ParsedArguments arguments, String typed) {
+        return get().tabCompleteAsync(sender, arguments, typed);
+    }
+
+    @Override
+    @NotNull public CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandContext context, String typed) {
+        return get().tabCompleteAsync(context, typed);
+    }
+
+    @Override
+    @NotNull public List<CommandFlag> getAllowedFlags(@NotNull CommandSender sender) {
+        return get().getAllowedFlags(sender);
+    }
+
+    @Override
+    @NotNull public List<CommandFlag> getAllowedFlags(@NotNull Sender sender) {
+        return get().getAllowedFlags(sender);
+    }
+
+    @Override
+    @NotNull public List<CommandFlag> suggestFlags(@NotNull CommandSender sender, @NotNull List<Either<String, CommandFlag>> arguments) {
+        return get().suggestFlags(sender, arguments);
+    }
+
+    @Override
+    @NotNull public List<CommandFlag> suggestFlags(@NotNull CommandSender sender, @NotNull ParsedArguments arguments) {
+        return get().suggestFlags(sender, arguments);
+    }
+
+    @Override
+    @NotNull public List<CommandFlag> suggestFlags(@NotNull CommandContext context) {
+        return get().suggestFlags(context);
+    }
+
+    @Override
+    public String toString() {
+        return "LazySubcommand{" + name + (isLoaded() ? "" : ", not loaded") + "}";
+    }
+}
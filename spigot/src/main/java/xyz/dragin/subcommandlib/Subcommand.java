@@ -0,0 +1,218 @@
+package xyz.dragin.subcommandlib;
+
+import io.vavr.control.Either;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.util.ParsedArguments;
+import xyz.dragin.subcommandlib.util.SubcommandUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A command or subcommand on Spigot. Can have any amount of Subcommand children.
+ * This is the core module's CommandHandler taking Bukkit's CommandSender: its CommandHandler methods, which the Dispatcher calls,
+ * pass the sender to the methods here through {@link BukkitSender#unwrap(Sender)}.
+ */
+public interface Subcommand extends CommandHandler {
+    /**
+     * The all-lowercase name of the command for registry and identification; what's typed by the player.
+     * If registered as a base command, this is assumed to be in the commands section of your plugin.yml.
+     * @return The name of the command
+     */
+    @Override
+    @NotNull String getName();
+
+    /**
+     * Aliases for the Subcommand to register alongside it (points to the same instance).
+     * If registered as a base command, this will be ignored; add any base aliases to the "aliases" property of your command in your plugin.yml.
+     * Default behavior: Returns an empty list.
+     * @return A list of alias names
+     */
+    @Override
+    @NotNull default List<String> getAliases() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * A list of Subcommands that are children to this one.
+     * Default behavior: Returns an empty List.
+     * @return All child Subcommands
+     */
+    @NotNull default List<Subcommand> getSubcommands() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * The children of this command, as the Dispatcher finds them.
+     * Default behavior: Returns getSubcommands().
+     * @return All child Subcommands
+     */
+    @Override
+    @NotNull default List<Subcommand> getChildren() {
+        return getSubcommands();
+    }
+
+    /**
+     * What should be done when the command is executed.
+     * Default behavior: Returns false, telling the player it can't be run without a subcommand.
+     * @param sender The CommandSender running the command
+     * @param arguments All String (required) or CommandFlag (optional) arguments passed to the command
+     * @return False if and only if the command cannot be run by itself (parent to subcommands only)
+     */
+    default boolean execute(@NotNull CommandSender sender, @NotNull List<Either<String, CommandFlag>> arguments) {
+        return false;
+    }
+
+    /**
+     * What should be done when the command is executed, using arguments that haven't been converted into a List of Eithers.
+     * Override this instead of execute(CommandSender, List) to skip that conversion.
+     * Default behavior: Calls execute(CommandSender, List).
+     * @param sender The CommandSender running the command
+     * @param arguments All String (required), CommandFlag and CommandOption (optional) arguments passed to the command
+     * @return False if and only if the command cannot be run by itself (parent to subcommands only)
+     */
+    default boolean execute(@NotNull CommandSender sender, @NotNull ParsedArguments arguments) {
+        return execute(sender, arguments.asList());
+    }
+
+    /**
+     * What should be done when the command is executed, using a context that remembers anything depending on the sender.
+     * This is what's called by SubcommandLib; override it to use getAllowedFlags() or other information without finding it again.
+     * Default behavior: Calls execute(CommandSender, ParsedArguments).
+     * @param context The sender, parsed arguments and everything else about this execution
+     * @return False if and only if the command cannot be run by itself (parent to subcommands only)
+     */
+    @Override
+    default boolean execute(@NotNull CommandContext context) {
+        return execute(BukkitSender.unwrap(context.getSender()), context.getArguments());
+    }
+
+    /**
+     * A tab completion for anything BUT the option given to a flag (those are handled within the flags themselves).
+     * Adds onto any flags provided by getAllowedFlags().
+     * Note: You won't need to filter based on what's typed; that's handled automatically.
+     * Default behavior: No tab completion options other than flags.
+     * @param sender The CommandSender typing the command
+     * @param arguments All String (required) and CommandFlag (optional) arguments currently entered into the command
+     * @param typed The final incomplete argument to tab complete
+     * @return A list of tab suggestions based on previous arguments
+     */
+    @NotNull default List<String> tabComplete(@NotNull CommandSender sender, @NotNull List<Either<String, CommandFlag>> arguments, String typed) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * A tab completion using arguments that haven't been converted into a List of Eithers.
+     * Override this instead of tabComplete(CommandSender, List, String) to skip that conversion.
+     * Default behavior: Calls tabComplete(CommandSender, List, String).
+     * @param sender The CommandSender typing the command
+     * @param arguments All String (required), CommandFlag and CommandOption (optional) arguments currently entered into the command
+     * @param typed The final incomplete argument to tab complete
+     * @return A list of tab suggestions based on previous arguments
+     */
+    @NotNull default List<String> tabComplete(@NotNull CommandSender sender, @NotNull ParsedArguments arguments, String typed) {
+        return tabComplete(sender, arguments.asList(), typed);
+    }
+
+    /**
+     * A tab completion using a context that remembers anything depending on the sender.
+     * This is what's called by SubcommandLib; override it to use getAllowedFlags() or other information without finding it again.
+     * Default behavior: Calls tabComplete(CommandSender, ParsedArguments, String).
+     * @param context The sender, parsed arguments and everything else about this tab completion
+     * @param typed The final incomplete argument to tab complete
+     * @return A list of tab suggestions based on previous arguments
+     */
+    @Override
+    @NotNull default List<String> tabComplete(@NotNull CommandContext context, String typed) {
+        return tabComplete(BukkitSender.unwrap(context.getSender()), context.getArguments(), typed);
+    }
+
+    /**
+     * A tab completion that's found off the main thread, for suggestions that take a while to look up (e.g. from a database).
+     * SubcommandLib calls this on {@link SubcommandLib#getAsyncExecutor()}, so it can do the lookup right here and return a finished future,
+     * or start it somewhere else and return right away. Don't use the Bukkit API that needs the main thread.
+     * Until the future finishes, the player only sees the other suggestions; afterward, its suggestions are added to them.
+     * The future is cancelled if the same sender asks for a different tab completion first, or if it takes longer than the timeout
+     * of {@link SubcommandLib#getAsyncCompleter()}; if this method is still running then, its thread is interrupted.
+     * Default behavior: An already finished future with no suggestions.
+     * @param sender The CommandSender typing the command
+     * @param arguments All String (required), CommandFlag and CommandOption (optional) arguments currently entered into the command
+     * @param typed The final incomplete argument to tab complete
+     * @return A future list of tab suggestions based on previous arguments
+     */
+    @NotNull default CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandSender sender, @NotNull ParsedArguments arguments, String typed) {
+        return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+
+    /**
+     * An asynchronous tab completion using a context that remembers anything depending on the sender.
+     * This is what's called by SubcommandLib; see tabCompleteAsync(CommandSender, ParsedArguments, String).
+     * Default behavior: Calls tabCompleteAsync(CommandSender, ParsedArguments, String).
+     * @param context The sender, parsed arguments and everything else about this tab completion
+     * @param typed The final incomplete argument to tab complete
+     * @return A future list of tab suggestions based on previous arguments
+     */
+    @Override
+    @NotNull default CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandContext context, String typed) {
+        return tabCompleteAsync(BukkitSender.unwrap(context.getSender()), context.getArguments(), typed);
+    }
+
+    /**
+     * CommandFlags that can be used and will be treated as flags (all other strings are literal).
+     * Default behavior: Returns an empty List.
+     * @param sender The CommandSender typing the command
+     * @return List of valid CommandFlags
+     */
+    @NotNull default List<CommandFlag> getAllowedFlags(@NotNull CommandSender sender) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * CommandFlags that can be used, as the Dispatcher finds them.
+     * Default behavior: Calls getAllowedFlags(CommandSender).
+     * @param sender The sender typing the command
+     * @return List of valid CommandFlags
+     */
+    @Override
+    @NotNull default List<CommandFlag> getAllowedFlags(@NotNull Sender sender) {
+        return getAllowedFlags(BukkitSender.unwrap(sender));
+    }
+    /**
+     * A list of flags that are suggested in the tab completion based on the current entry.
+     * Default behavior: suggests any flags from getAllowedFlags() that haven't been used.
+     * @param sender The CommandSender typing the command
+     * @param arguments All String (required) and CommandFlag (optional) arguments currently entered into the command
+     * @return List of flags to suggest in the tab completion
+     */
+    @NotNull default List<CommandFlag> suggestFlags(@NotNull CommandSender sender, @NotNull List<Either<String, CommandFlag>> arguments) {
+        ArrayList<CommandFlag> output = new ArrayList<>(getAllowedFlags(sender));
+        output.removeAll(SubcommandUtils.getFlags(arguments));
+        return output;
+    }
+
+    /**
+     * A list of flags that are suggested in the tab completion, using arguments that haven't been converted into a List of Eithers.
+     * Default behavior: Calls suggestFlags(CommandSender, List).
+     * @param sender The CommandSender typing the command
+     * @param arguments All String (required), CommandFlag and CommandOption (optional) arguments currently entered into the command
+     * @return List of flags to suggest in the tab completion
+     */
+    @NotNull default List<CommandFlag> suggestFlags(@NotNull CommandSender sender, @NotNull ParsedArguments arguments) {
+        return suggestFlags(sender, arguments.asList());
+    }
+
+    /**
+     * A list of flags that are suggested in the tab completion, using a context that remembers anything depending on the sender.
+     * This is what's called by SubcommandLib (through {@link CommandContext#getSuggestedFlags()}).
+     * Default behavior: Calls suggestFlags(CommandSender, ParsedArguments).
+     * If no suggestFlags method is overridden, the context finds the unused flags itself without calling getAllowedFlags() again.
+     * @param context The sender, parsed arguments and everything else about this tab completion
+     * @return List of flags to suggest in the tab completion
+     */
+    @Override
+    @NotNull default List<CommandFlag> suggestFlags(@NotNull CommandContext context) {
+        return suggestFlags(BukkitSender.unwrap(context.getSender()), context.getArguments());
+    }
+}
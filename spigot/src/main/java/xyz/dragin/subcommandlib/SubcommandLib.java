@@ -0,0 +1,315 @@
+package xyz.dragin.subcommandlib;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.*;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.batch.BatchResult;
+import xyz.dragin.subcommandlib.completion.AsyncCompleter;
+import xyz.dragin.subcommandlib.completion.CompletionCache;
+import xyz.dragin.subcommandlib.completion.CompletionThrottle;
+import xyz.dragin.subcommandlib.metrics.MetricsRegistry;
+import xyz.dragin.subcommandlib.recording.TrafficRecorder;
+import xyz.dragin.subcommandlib.task.CommandTask;
+import xyz.dragin.subcommandlib.task.TaskHandle;
+import xyz.dragin.subcommandlib.task.TaskScheduler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Main class used for Subcommand registry.
+ * The executors, caches, metrics and task scheduler it gives out are the ones from {@link SubcommandCore}, shared with every Dispatcher.
+ */
+public final class SubcommandLib extends JavaPlugin {
+    private static final Map<String, Registration> registered = new ConcurrentHashMap<>();
+    private static BukkitTask taskTicker;
+
+    private SubcommandLib() {
+    }
+
+    /**
+     * Registers your Subcommand for use in game based on its name.
+     * The name must match one given in plugin.yml for the command to appear in game.
+     * If the Subcommand is also a Listener, events will automatically be registered.
+     * Any {@link AsyncSubcommand} in the tree reports back to the main thread through the given plugin.
+     * The Subcommand tree is compiled for dispatching here; see {@link #refresh(String)} if its children change later.
+     * @param command The Subcommand to register
+     * @param plugin The JavaPlugin to register on the behalf of, usually "this"
+     */
+    public static void register(@NotNull Subcommand command, @NotNull JavaPlugin plugin) {
+        PluginCommand pluginCommand = plugin.getCommand(command.getName());
+        CommandNode node = CommandNode.compile(command);
+        SubcommandWrapper wrapper = new SubcommandWrapper(node, plugin);
+
+        pluginCommand.setExecutor(wrapper);
+        pluginCommand.setTabCompleter(wrapper);
+        registered.put(command.getName(), new Registration(node, pluginCommand));
+
+        CommandHandler instance = node.getSubcommand();
+        if (instance instanceof Listener) Bukkit.getPluginManager().registerEvents((Listener) instance, plugin);
+    }
+
+    /**
+     * Gets the compiled tree of a registered base command, e.g. to invalidate part of it with {@link CommandNode#invalidate()}
+     * @param name The name of the base command
+     * @return The compiled base node, or null if no command with that name was registered
+     */
+    @Nullable public static CommandNode getNode(@NotNull String name) {
+        Registration registration = registered.get(name);
+        return registration == null ? null : registration.node;
+    }
+
+    /**
+     * Finds a registered base command by its name, label or one of its plugin.yml aliases, ignoring case like Bukkit does.
+     * The aliases of a base Subcommand aren't used, since Bukkit ignores them too.
+     * @param name The name typed
+     * @return The compiled base node and its PluginCommand, or null if no registered command has that name
+     */
+    @Nullable static Registration findRegistration(@NotNull String name) {
+        Registration registration = registered.get(name);
+        if (registration != null) return registration;
+        for (Registration candidate : registered.values()) {
+            PluginCommand command = candidate.command;
+            if (command.getName().equalsIgnoreCase(name) || command.getLabel().equalsIgnoreCase(name)) return candidate;
+            for (String alias : command.getAliases()) {
+                if (alias.equalsIgnoreCase(name)) return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Executes many commands as a batch, e.g. from the console or a script, without going through Bukkit for each one.
+     * Every line is tokenized and resolved up front, then the lines run a few at a time each tick through the task scheduler.
+     * Lines for the same subcommand are run one after another, sharing the allowed flags of the sender,
+     * so lines for different subcommands may not run in the order they were given; see {@link #executeBatch(Plugin, CommandSender, List, boolean)}.
+     * Blank lines and lines starting with # are ignored. Instead of messages, the outcome of each line is in the results.
+     * Lines count towards the metrics and are recorded by the TrafficRecorder, like commands typed by players.
+     * Like with Bukkit, lines for a base command whose plugin.yml permission the sender doesn't have aren't run.
+     * Should be called from the main thread, since getAllowedFlags() is called for each subcommand right away.
+     * @param plugin The plugin to schedule through
+     * @param sender The sender running the commands, e.g. Bukkit.getConsoleSender()
+     * @param lines The commands, with or without their slash
+     * @return The results of every line once they've all run; cancelling it skips the lines that haven't run yet
+     */
+    @NotNull public static CompletableFuture<BatchResult> executeBatch(@NotNull Plugin plugin, @NotNull CommandSender sender, @NotNull List<String> lines) {
+        return executeBatch(plugin, sender, lines, false);
+    }
+
+    /**
+     * Executes many commands as a batch, e.g. from the console or a script, without going through Bukkit for each one
+     * @param plugin The plugin to schedule through
+     * @param sender The sender running the commands, e.g. Bukkit.getConsoleSender()
+     * @param lines The commands, with or without their slash
+     * @param keepOrder Whether to run the lines in the order they were given, for when later lines depend on earlier ones;
+     * asynchronous lines and the tasks of TaskSubcommands then finish before the next line starts
+     * @return The results of every line once they've all run; cancelling it skips the lines that haven't run yet
+     * @see #executeBatch(Plugin, CommandSender, List)
+     */
+    @NotNull public static CompletableFuture<BatchResult> executeBatch(@NotNull Plugin plugin, @NotNull CommandSender sender, @NotNull List<String> lines, boolean keepOrder) {
+        return BatchExecution.start(plugin, sender, lines, keepOrder);
+    }
+
+    /**
+     * Executes every command in a script file as a batch, in the order they're written
+     * @param plugin The plugin to schedule through
+     * @param sender The sender running the commands, e.g. Bukkit.getConsoleSender()
+     * @param script A UTF-8 text file with one command per line; blank lines and lines starting with # are ignored
+     * @return The results of every line once they've all run
+     * @throws IOException If the script can't be read
+     * @see #executeBatch(Plugin, CommandSender, List)
+     */
+    @NotNull public static CompletableFuture<BatchResult> executeScript(@NotNull Plugin plugin, @NotNull CommandSender sender, @NotNull Path script) throws IOException {
+        return executeBatch(plugin, sender, Files.readAllLines(script, StandardCharsets.UTF_8), true);
+    }
+
+    /**
+     * Recompiles the whole tree of a registered base command, for when its children change at runtime
+     * @param name The name of the base command
+     */
+    public static void refresh(@NotNull String name) {
+        Registration registration = registered.get(name);
+        if (registration != null) registration.node.invalidate();
+    }
+
+    /**
+     * Gets the executor for work that shouldn't run on the main thread, such as asynchronous tab completions and AsyncSubcommands.
+     * Unless replaced, this is a small pool of daemon threads with a bounded queue; work beyond that is rejected.
+     * @return The executor
+     */
+    @NotNull public static ExecutorService getAsyncExecutor() {
+        return SubcommandCore.getAsyncExecutor();
+    }
+
+    /**
+     * Replaces the executor for work that shouldn't run on the main thread. The previous one isn't shut down.
+     * @param executor The new executor
+     */
+    public static void setAsyncExecutor(@NotNull ExecutorService executor) {
+        SubcommandCore.setAsyncExecutor(executor);
+    }
+
+    /**
+     * Gets what keeps track of asynchronous tab completions (see {@link Subcommand#tabCompleteAsync}).
+     * Unless replaced, completions time out after 2 seconds, the main thread never waits for them, and finished results are reused for 10 seconds.
+     * @return The AsyncCompleter used by all registered commands
+     */
+    @NotNull public static AsyncCompleter getAsyncCompleter() {
+        return SubcommandCore.getAsyncCompleter();
+    }
+
+    /**
+     * Replaces what keeps track of asynchronous tab completions, e.g. to change the timeout
+     * @param completer The new AsyncCompleter
+     */
+    public static void setAsyncCompleter(@NotNull AsyncCompleter completer) {
+        SubcommandCore.setAsyncCompleter(completer);
+    }
+
+    /**
+     * Gets where the last tab suggestions of each sender are remembered, so typing more of an argument only narrows them down.
+     * Unless replaced, suggestions are remembered for 10 seconds for up to 1024 senders.
+     * @return The CompletionCache used by all registered commands
+     */
+    @NotNull public static CompletionCache getCompletionCache() {
+        return SubcommandCore.getCompletionCache();
+    }
+
+    /**
+     * Replaces where tab suggestions are remembered, e.g. to change its limits or disable it with 0 maxSenders
+     * @param cache The new CompletionCache
+     */
+    public static void setCompletionCache(@NotNull CompletionCache cache) {
+        SubcommandCore.setCompletionCache(cache);
+    }
+
+    /**
+     * Gets what limits how often each sender's tab completions are computed, e.g. to read how many were coalesced or dropped.
+     * Unless replaced, each sender can have 20 completions per second computed for each base command, in bursts of up to 40.
+     * @return The CompletionThrottle used by all registered commands
+     */
+    @NotNull public static CompletionThrottle getCompletionThrottle() {
+        return SubcommandCore.getCompletionThrottle();
+    }
+
+    /**
+     * Replaces what limits how often tab completions are computed, e.g. to change the limits or disable it with a rate of 0
+     * @param throttle The new CompletionThrottle
+     */
+    public static void setCompletionThrottle(@NotNull CompletionThrottle throttle) {
+        SubcommandCore.setCompletionThrottle(throttle);
+    }
+
+    /**
+     * Forgets remembered tab suggestions of a Subcommand, for when what it suggests has changed (e.g. a warp was added)
+     * @param subcommand The Subcommand whose suggestions changed
+     */
+    public static void invalidateCompletions(@NotNull Subcommand subcommand) {
+        SubcommandCore.getCompletionCache().invalidateIf(scope -> scope instanceof CommandNode && ((CommandNode) scope).isFor(subcommand));
+    }
+
+    /**
+     * Gets the metrics of every registered command: how often each subcommand is executed and tab completed,
+     * how often it fails, and how long it takes. Turn recording off with MetricsRegistry.setEnabled(false).
+     * @return The MetricsRegistry used by all registered commands
+     */
+    @NotNull public static MetricsRegistry getMetrics() {
+        return SubcommandCore.getMetrics();
+    }
+
+    /**
+     * Gets what records every execution and tab completion of registered commands, e.g. for replaying them in a load test
+     * @return The TrafficRecorder, or null if nothing is being recorded (the default)
+     */
+    @Nullable public static TrafficRecorder getRecorder() {
+        return SubcommandCore.getRecorder();
+    }
+
+    /**
+     * Starts recording every execution and tab completion of registered commands, or stops if null.
+     * The previous recorder isn't closed.
+     * @param recorder The new TrafficRecorder, or null
+     */
+    public static void setRecorder(@Nullable TrafficRecorder recorder) {
+        SubcommandCore.setRecorder(recorder);
+    }
+
+    /**
+     * Gets the scheduler that runs the steps of every CommandTask, e.g. to cancel the tasks of a sender.
+     * Unless replaced, steps run for up to 5 milliseconds each tick, and progress is reported every 5 seconds.
+     * @return The TaskScheduler used by all registered commands
+     */
+    @NotNull public static TaskScheduler getTaskScheduler() {
+        return SubcommandCore.getTaskScheduler();
+    }
+
+    /**
+     * Replaces the scheduler that runs the steps of every CommandTask, e.g. to change the budget per tick.
+     * Tasks still running on the previous one are cancelled.
+     * @param scheduler The new TaskScheduler
+     */
+    public static void setTaskScheduler(@NotNull TaskScheduler scheduler) {
+        SubcommandCore.setTaskScheduler(scheduler);
+    }
+
+    /**
+     * Runs a CommandTask a few steps each tick on the main thread, telling the sender about its progress and about any error.
+     * This is what a {@link TaskSubcommand} does when executed, but it can also be used for work started in other ways.
+     * @param plugin The plugin to schedule the steps through
+     * @param sender The sender the task is for, who takes turns with other senders
+     * @param task The task
+     * @return A handle for cancelling the task or waiting for it to finish
+     * @throws IllegalArgumentException If the plugin is null, before the task is submitted
+     */
+    @NotNull public static TaskHandle runTask(@NotNull Plugin plugin, @NotNull CommandSender sender, @NotNull CommandTask task) {
+        // Checks the plugin before submitting, so a task is never left without anything ticking it
+        BukkitPlatform platform = new BukkitPlatform(plugin);
+        return Dispatcher.runTask(BukkitSender.of(sender), task, platform);
+    }
+
+    /**
+     * Makes sure the task scheduler is ticked once per tick while it has tasks
+     * @param plugin The plugin to schedule the ticking through if it isn't already
+     */
+    static synchronized void startTicking(Plugin plugin) {
+        if (taskTicker != null && Bukkit.getScheduler().isQueued(taskTicker.getTaskId())) return;
+        taskTicker = Bukkit.getScheduler().runTaskTimer(plugin, SubcommandLib::tickTasks, 1, 1);
+    }
+
+    /**
+     * A registered base command: its compiled tree and the PluginCommand from plugin.yml, which knows its permission
+     */
+    static final class Registration {
+        final CommandNode node;
+        final PluginCommand command;
+
+        private Registration(CommandNode node, PluginCommand command) {
+            this.node = node;
+            this.command = command;
+        }
+    }
+
+    private static void tickTasks() {
+        TaskScheduler scheduler = SubcommandCore.getTaskScheduler();
+        scheduler.tick();
+        // Stops until the next task is run, instead of ticking for nothing
+        synchronized (SubcommandLib.class) {
+            if (scheduler.getRunning() == 0 && taskTicker != null) {
+                taskTicker.cancel();
+                taskTicker = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package xyz.dragin.subcommandlib;
+
+import org.bukkit.command.*;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Executor and tab completer for a registered base command, handing everything to its {@link Dispatcher}
+ */
+final class SubcommandWrapper implements CommandExecutor, TabCompleter {
+    private final Dispatcher dispatcher;
+
+    SubcommandWrapper(CommandNode root, Plugin plugin) {
+        this.dispatcher = new Dispatcher(root, new BukkitPlatform(plugin));
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, String[] args) {
+        dispatcher.execute(BukkitSender.of(sender), args);
+        // The sender has already been told if it couldn't be run, so Bukkit doesn't need to show the usage
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, String[] args) {
+        return dispatcher.tabComplete(BukkitSender.of(sender), args);
+    }
+}
@@ -0,0 +1,36 @@
+package xyz.dragin.subcommandlib;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.dragin.subcommandlib.task.CommandTask;
+
+/**
+ * A Subcommand whose work is split into steps that run over several ticks, for commands that process a lot of things
+ * (e.g. mass teleports or inventory scans) on the main thread without freezing the server.
+ * Steps run within SubcommandLib's per-tick budget, taking turns with the tasks of other senders, and the sender is told about the progress.
+ * A sender's tasks can be cancelled with SubcommandLib.getTaskScheduler().cancel(SubcommandUtils.getSenderKey(sender)).
+ * @see CommandContext#runTask
+ */
+public interface TaskSubcommand extends Subcommand {
+    /**
+     * Creates the task to run when the command is executed. Runs on the main thread, like every step of the task.
+     * @param context The sender, parsed arguments and everything else about this execution
+     * @return The task, or null if and only if the command cannot be run by itself (parent to subcommands only)
+     */
+    @Nullable CommandTask executeTask(@NotNull CommandContext context);
+
+    /**
+     * What should be done when the command is executed.
+     * Default behavior: Starts the task from executeTask() with CommandContext.runTask().
+     * Without a server (e.g. in a Dispatcher made for a test), the task runs to the end right away.
+     * @param context The sender, parsed arguments and everything else about this execution
+     * @return False if and only if the command cannot be run by itself (parent to subcommands only)
+     */
+    @Override
+    default boolean execute(@NotNull CommandContext context) {
+        CommandTask task = executeTask(context);
+        if (task == null) return false;
+        context.runTask(task);
+        return true;
+    }
+}
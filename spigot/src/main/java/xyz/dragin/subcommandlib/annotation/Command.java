@@ -0,0 +1,41 @@
+package xyz.dragin.subcommandlib.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a method as the execution of a command or subcommand, for SubcommandLib's annotation processor.
+ * The method must take only a {@link xyz.dragin.subcommandlib.CommandContext} and return a boolean (false if it can't be run by itself) or nothing.
+ * <p>
+ * For a class Foo with annotated methods, the processor generates a class FooTree with create() and register() methods that build the Subcommand trees.
+ * Names, aliases, flags and completions are all turned into constants at compile time, so building and running the tree doesn't use any reflection,
+ * and duplicate names or aliases are compile errors.
+ * Parents that only appear in the path of another command (e.g. "region" for "region set") are generated without an execution.
+ * @see Flag
+ * @see Option
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Command {
+    /**
+     * The all-lowercase names leading to the command from its base command, separated by spaces
+     * @return The path of the command, e.g. "region set"
+     */
+    String value();
+
+    /**
+     * Aliases for the command (ignored for base commands, like {@link xyz.dragin.subcommandlib.Subcommand#getAliases()})
+     * @return The aliases
+     */
+    String[] aliases() default {};
+
+    /**
+     * Suggestions for the command's normal arguments, narrowed by what's typed
+     * @return The suggestions
+     */
+    String[] completions() default {};
+}
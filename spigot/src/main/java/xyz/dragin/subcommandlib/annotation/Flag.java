@@ -0,0 +1,30 @@
+package xyz.dragin.subcommandlib.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows a CommandFlag on a {@link Command} method, for SubcommandLib's annotation processor
+ * @see Option
+ */
+@Documented
+@Repeatable(Flags.class)
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Flag {
+    /**
+     * The name of the flag
+     * @return The name of the flag, not including any dashes
+     */
+    String value();
+
+    /**
+     * Single character flags of the same command to suggest after this one in a "cluster" (e.g. "xvf" for -z), unless they've already been given
+     * @return The characters of the flags
+     */
+    String next() default "";
+}
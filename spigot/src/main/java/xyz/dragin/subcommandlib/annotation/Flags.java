@@ -0,0 +1,21 @@
+package xyz.dragin.subcommandlib.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Holds repeated {@link Flag} annotations
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Flags {
+    /**
+     * The repeated annotations
+     * @return Every flag, in order
+     */
+    Flag[] value();
+}
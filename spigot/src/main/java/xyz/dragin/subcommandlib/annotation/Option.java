@@ -0,0 +1,30 @@
+package xyz.dragin.subcommandlib.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows a CommandOption on a {@link Command} method, for SubcommandLib's annotation processor
+ * @see Flag
+ */
+@Documented
+@Repeatable(Options.class)
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Option {
+    /**
+     * The name of the option
+     * @return The name of the option, not including any dashes
+     */
+    String value();
+
+    /**
+     * Suggested parameters for tab completion after the option
+     * @return The suggestions
+     */
+    String[] suggestions() default {};
+}
@@ -0,0 +1,67 @@
+package xyz.dragin.subcommandlib.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of every command in a batch, in the order of their lines
+ * @see xyz.dragin.subcommandlib.SubcommandLib#executeBatch
+ */
+public final class BatchResult {
+    private final List<LineResult> results;
+
+    /**
+     * Initialization constructor
+     * @param results The result of every line, in order
+     */
+    public BatchResult(@NotNull List<LineResult> results) {
+        this.results = Collections.unmodifiableList(new ArrayList<>(results));
+    }
+
+    /**
+     * Gets the result of every line that had a command, skipping blank lines and comments
+     * @return An unmodifiable List of results, in the order of their lines
+     */
+    @NotNull public List<LineResult> getResults() { return results; }
+
+    /**
+     * Counts the lines that ended a certain way
+     * @param status The status to count
+     * @return The amount of lines with the status
+     */
+    public int count(@NotNull LineResult.Status status) {
+        int count = 0;
+        for (LineResult result : results) {
+            if (result.getStatus() == status) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Whether every command was executed and returned true
+     * @return True if nothing failed
+     */
+    public boolean isSuccess() {
+        return count(LineResult.Status.SUCCESS) == results.size();
+    }
+
+    /**
+     * Gets the lines that didn't succeed
+     * @return A new List of every result that isn't SUCCESS
+     */
+    @NotNull public List<LineResult> getFailures() {
+        List<LineResult> output = new ArrayList<>();
+        for (LineResult result : results) {
+            if (!result.isSuccess()) output.add(result);
+        }
+        return output;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" + count(LineResult.Status.SUCCESS) + "/" + results.size() + " succeeded}";
+    }
+}
@@ -0,0 +1,101 @@
+package xyz.dragin.subcommandlib.batch;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * What happened to one line of a batch of commands
+ */
+public final class LineResult {
+    /**
+     * How a line of a batch ended
+     */
+    public enum Status {
+        /** The command was executed and returned true, and its task finished if it's a TaskSubcommand */
+        SUCCESS,
+        /** The command returned false, because it cannot be run by itself */
+        CANNOT_RUN,
+        /** No registered command has the line's name */
+        UNKNOWN_COMMAND,
+        /** The sender doesn't have the permission of the line's base command from plugin.yml */
+        NO_PERMISSION,
+        /** The command threw an exception */
+        FAILED,
+        /** The command is asynchronous, and the server was too busy to run it or the sender already had as many running as it allows */
+        REJECTED,
+        /** The batch was cancelled before the line was run */
+        SKIPPED
+    }
+
+    private final int line;
+    private final String command;
+    private final Status status;
+    private final String path;
+    private final Throwable error;
+    private final long nanos;
+
+    /**
+     * Initialization constructor
+     * @param line The line number, starting at 1
+     * @param command The line as it was given
+     * @param status How the line ended
+     * @param path The path of the subcommand the line resolved to, or null if it didn't
+     * @param error The exception the command threw, or null
+     * @param nanos How long the command took to execute, in nanoseconds
+     */
+    public LineResult(int line, @NotNull String command, @NotNull Status status, @Nullable String path, @Nullable Throwable error, long nanos) {
+        this.line = line;
+        this.command = command;
+        this.status = status;
+        this.path = path;
+        this.error = error;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Gets the line number
+     * @return The line number, starting at 1
+     */
+    public int getLine() { return line; }
+
+    /**
+     * Gets the line as it was given
+     * @return The command
+     */
+    @NotNull public String getCommand() { return command; }
+
+    /**
+     * Gets how the line ended
+     * @return The status
+     */
+    @NotNull public Status getStatus() { return status; }
+
+    /**
+     * Whether the command was executed and returned true
+     * @return True if the status is SUCCESS
+     */
+    public boolean isSuccess() { return status == Status.SUCCESS; }
+
+    /**
+     * Gets the path of the subcommand the line resolved to, e.g. "region set flag"
+     * @return The path, or null if no registered command has the line's name
+     */
+    @Nullable public String getPath() { return path; }
+
+    /**
+     * Gets the exception the command threw
+     * @return The exception, or null if it didn't throw one
+     */
+    @Nullable public Throwable getError() { return error; }
+
+    /**
+     * Gets how long the command took to execute
+     * @return The time in nanoseconds, or 0 if it wasn't executed
+     */
+    public long getNanos() { return nanos; }
+
+    @Override
+    public String toString() {
+        return "LineResult{" + line + ": " + status + (error == null ? "" : " " + error) + "}";
+    }
+}
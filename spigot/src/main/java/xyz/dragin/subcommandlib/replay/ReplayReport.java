@@ -0,0 +1,112 @@
+package xyz.dragin.subcommandlib.replay;
+
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.metrics.LatencyHistogram;
+
+/**
+ * How a replay of recorded traffic went: how much was replayed, how fast, and how long each dispatch took
+ * @see TrafficReplay
+ */
+public final class ReplayReport {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] LABELS = {"p50", "p90", "p99", "p99.9"};
+
+    private final int threads;
+    private final long replayed;
+    private final long unknown;
+    private final long failures;
+    private final long wallNanos;
+    private final LatencyHistogram.Snapshot executions;
+    private final LatencyHistogram.Snapshot tabCompletions;
+
+    /**
+     * Initialization constructor
+     * @param threads The amount of threads the traffic was replayed on
+     * @param replayed The amount of records that were dispatched
+     * @param unknown The amount of records for base commands that weren't found
+     * @param failures The amount of dispatches that threw an exception
+     * @param wallNanos How long the whole replay took, in nanoseconds
+     * @param executions The durations of every execution
+     * @param tabCompletions The durations of every tab completion
+     */
+    public ReplayReport(int threads, long replayed, long unknown, long failures, long wallNanos,
+                        @NotNull LatencyHistogram.Snapshot executions, @NotNull LatencyHistogram.Snapshot tabCompletions) {
+        this.threads = threads;
+        this.replayed = replayed;
+        this.unknown = unknown;
+        this.failures = failures;
+        this.wallNanos = wallNanos;
+        this.executions = executions;
+        this.tabCompletions = tabCompletions;
+    }
+
+    /**
+     * Gets the amount of threads the traffic was replayed on
+     * @return The amount of threads
+     */
+    public int getThreads() { return threads; }
+
+    /**
+     * Gets the amount of records that were dispatched
+     * @return The amount of executions and tab completions
+     */
+    public long getReplayed() { return replayed; }
+
+    /**
+     * Gets the amount of records that couldn't be replayed, because their base command wasn't found
+     * @return The amount of records
+     */
+    public long getUnknown() { return unknown; }
+
+    /**
+     * Gets the amount of dispatches that threw an exception
+     * @return The amount of dispatches
+     */
+    public long getFailures() { return failures; }
+
+    /**
+     * Gets how long the whole replay took
+     * @return The time in nanoseconds
+     */
+    public long getWallNanos() { return wallNanos; }
+
+    /**
+     * Gets how many executions and tab completions were dispatched per second, across every thread
+     * @return The throughput, or 0 if nothing was replayed
+     */
+    public double getThroughput() { return wallNanos == 0 ? 0 : replayed * 1e9 / wallNanos; }
+
+    /**
+     * Gets the durations of every execution, for finding percentiles
+     * @return The snapshot
+     */
+    @NotNull public LatencyHistogram.Snapshot getExecutions() { return executions; }
+
+    /**
+     * Gets the durations of every tab completion, for finding percentiles
+     * @return The snapshot
+     */
+    @NotNull public LatencyHistogram.Snapshot getTabCompletions() { return tabCompletions; }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append("Replayed ").append(replayed).append(" records on ").append(threads).append(" threads in ")
+                .append(String.format("%.1f ms (%.0f/s)", wallNanos / 1e6, getThroughput()));
+        if (unknown > 0) builder.append(", ").append(unknown).append(" unknown");
+        if (failures > 0) builder.append(", ").append(failures).append(" failed");
+        append(builder, "\nexecute", executions);
+        append(builder, "\ntab complete", tabCompletions);
+        return builder.toString();
+    }
+
+    private static void append(StringBuilder builder, String name, LatencyHistogram.Snapshot snapshot) {
+        builder.append(name).append(": ").append(snapshot.getCount());
+        if (snapshot.getCount() == 0) return;
+        builder.append(String.format(", mean %.1f us", snapshot.getMean() / 1e3));
+        for (int i = 0; i < QUANTILES.length; i++) {
+            builder.append(String.format(", %s %.1f us", LABELS[i], snapshot.getPercentile(QUANTILES[i]) / 1e3));
+        }
+        builder.append(String.format(", max %.1f us", snapshot.getMax() / 1e3));
+    }
+}
@@ -0,0 +1,198 @@
+package xyz.dragin.subcommandlib.replay;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import xyz.dragin.subcommandlib.BukkitSender;
+import xyz.dragin.subcommandlib.CommandNode;
+import xyz.dragin.subcommandlib.Dispatcher;
+import xyz.dragin.subcommandlib.Platform;
+import xyz.dragin.subcommandlib.Sender;
+import xyz.dragin.subcommandlib.Subcommand;
+import xyz.dragin.subcommandlib.SubcommandLib;
+import xyz.dragin.subcommandlib.metrics.LatencyHistogram;
+import xyz.dragin.subcommandlib.recording.TrafficLog;
+import xyz.dragin.subcommandlib.recording.TrafficRecord;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays traffic recorded by a {@link xyz.dragin.subcommandlib.recording.TrafficRecorder} as fast as possible on several threads,
+ * measuring throughput and how long each execution and tab completion takes.
+ * Every recorded sender is replayed by a fake CommandSender with the same name, and all of a sender's records run in order on the same thread,
+ * so per-sender caches and limits behave like they did when recorded. Commands run on the replaying threads, not a server's main thread.
+ * Replaying faster than the traffic was recorded can hit SubcommandLib's CompletionThrottle; replace it with an unlimited one to measure every completion.
+ * <p>
+ * Replayed commands really run, side effects included, so replay against trees given to {@link #add(Subcommand)} that are safe to run,
+ * e.g. ones backed by test data. Replaying against the trees registered with SubcommandLib has to be turned on with {@link #useRegistered()}.
+ * The fake senders aren't Players: they're op, have every permission and ignore messages,
+ * so branches for players (e.g. instanceof Player) and permission checks aren't exercised.
+ * <p>
+ * The JIT compiler makes the first replay slower than later ones, so replay a few times before trusting the numbers.
+ * It can also be run from the command line with the log, a thread count and the Subcommand classes to replay against:
+ * {@code java -cp ... xyz.dragin.subcommandlib.replay.TrafficReplay logs/ 8 com.example.RegionCommand}
+ */
+public final class TrafficReplay {
+    private final int threads;
+    private final Map<String, Dispatcher> dispatchers = new ConcurrentHashMap<>();
+    private boolean useRegistered;
+
+    /**
+     * Initialization constructor
+     * @param threads The amount of threads to replay on at the same time
+     */
+    public TrafficReplay(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+        this.threads = threads;
+    }
+
+    /**
+     * Replays records for a base command against a Subcommand tree, instead of the one registered with that name
+     * @param command The base command
+     * @return This TrafficReplay
+     */
+    @NotNull public TrafficReplay add(@NotNull Subcommand command) {
+        dispatchers.put(command.getName(), new Dispatcher(command));
+        return this;
+    }
+
+    /**
+     * Replays records for base commands without a tree given to {@link #add(Subcommand)} against the tree registered with SubcommandLib.
+     * Inside a running server, that re-executes every recorded command as op and off the main thread, with all of their side effects.
+     * @return This TrafficReplay
+     */
+    @NotNull public TrafficReplay useRegistered() {
+        useRegistered = true;
+        return this;
+    }
+
+    /**
+     * Replays every record in a file, or in every log file of a directory
+     * @param log The file or directory
+     * @return The results
+     * @throws IOException If the log can't be read
+     * @throws InterruptedException If interrupted while waiting for the threads
+     */
+    @NotNull public ReplayReport run(@NotNull Path log) throws IOException, InterruptedException {
+        return run(Files.isDirectory(log) ? TrafficLog.readAll(log) : TrafficLog.read(log));
+    }
+
+    /**
+     * Replays records. Records for commands without a tree given to {@link #add(Subcommand)} are counted as unknown,
+     * unless {@link #useRegistered()} was called and SubcommandLib has a tree registered for them.
+     * @param records The records, in the order they were recorded
+     * @return The results
+     * @throws InterruptedException If interrupted while waiting for the threads
+     */
+    @NotNull public ReplayReport run(@NotNull List<TrafficRecord> records) throws InterruptedException {
+        // Every sender stays on one thread, so their records keep their order
+        List<List<TrafficRecord>> partitions = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) partitions.add(new ArrayList<>());
+        Map<String, Sender> senders = new HashMap<>();
+        long unknown = 0;
+        for (TrafficRecord record : records) {
+            if (dispatcher(record.getCommand()) == null) unknown++;
+            else {
+                senders.computeIfAbsent(record.getSender(), TrafficReplay::sender);
+                partitions.get(Math.floorMod(record.getSender().hashCode(), threads)).add(record);
+            }
+        }
+
+        LatencyHistogram executions = new LatencyHistogram();
+        LatencyHistogram tabCompletions = new LatencyHistogram();
+        LongAdder replayed = new LongAdder();
+        LongAdder failures = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            List<TrafficRecord> partition = partitions.get(i);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (TrafficRecord record : partition) {
+                        Dispatcher dispatcher = dispatcher(record.getCommand());
+                        Sender sender = senders.get(record.getSender());
+                        String[] arguments = record.getArgumentArray();
+                        long begin = System.nanoTime();
+                        try {
+                            if (record.getKind() == TrafficRecord.Kind.EXECUTE) dispatcher.execute(sender, arguments);
+                            else dispatcher.tabComplete(sender, arguments);
+                        } catch (Throwable t) {
+                            failures.increment();
+                        }
+                        (record.getKind() == TrafficRecord.Kind.EXECUTE ? executions : tabCompletions).record(System.nanoTime() - begin);
+                        replayed.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "SubcommandLib Replay #" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long wallNanos = System.nanoTime() - begin;
+        return new ReplayReport(threads, replayed.sum(), unknown, failures.sum(), wallNanos, executions.snapshot(), tabCompletions.snapshot());
+    }
+
+    private Dispatcher dispatcher(String command) {
+        Dispatcher dispatcher = dispatchers.get(command);
+        if (dispatcher != null || !useRegistered) return dispatcher;
+        CommandNode node = SubcommandLib.getNode(command);
+        if (node == null) return null;
+        // Commands run on the replaying threads, since there's no main thread to report back to
+        return dispatchers.computeIfAbsent(command, name -> new Dispatcher(node, Platform.headless()));
+    }
+
+    /**
+     * Creates a sender that has every permission and ignores messages
+     */
+    private static Sender sender(String name) {
+        return BukkitSender.of((CommandSender) Proxy.newProxyInstance(
+                TrafficReplay.class.getClassLoader(),
+                new Class<?>[]{CommandSender.class},
+                (proxy, method, arguments) -> {
+                    switch (method.getName()) {
+                        case "getName": return name;
+                        case "hasPermission":
+                        case "isPermissionSet":
+                        case "isOp": return true;
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == arguments[0];
+                        case "toString": return "ReplaySender{" + name + "}";
+                        default: return null;
+                    }
+                }
+        ));
+    }
+
+    /**
+     * Replays a log from the command line and prints the report
+     * @param args The log file or directory, the amount of threads, then the class names of base commands with a constructor without parameters
+     * @throws Exception If the log can't be read or a command can't be created
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: TrafficReplay <log file or directory> <threads> <Subcommand class>...");
+            System.exit(1);
+        }
+        TrafficReplay replay = new TrafficReplay(Integer.parseInt(args[1]));
+        for (int i = 2; i < args.length; i++) replay.add((Subcommand) Class.forName(args[i]).getDeclaredConstructor().newInstance());
+        System.out.println(replay.run(Paths.get(args[0])));
+    }
+}
@@ -1,8 +1,11 @@
 package xyz.dragin.subcommandlib.util;
 
 import io.vavr.control.Either;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
 import xyz.dragin.subcommandlib.Subcommand;
 import xyz.dragin.subcommandlib.options.CommandFlag;
+import xyz.dragin.subcommandlib.options.FlagList;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -53,20 +56,34 @@ public final class SubcommandUtils {
      * @return Only specified flags
      */
     public static List<CommandFlag> getFlags(List<Either<String, CommandFlag>> arguments) {
-        return arguments.stream().filter(Either::isRight).map(Either::get).collect(Collectors.toList());
+        FlagList output = new FlagList(arguments.size());
+        for (Either<String, CommandFlag> argument : arguments) {
+            if (argument.isRight()) output.add(argument.get());
+        }
+        return output;
     }
 
     /**
-     * Finds a flag by a simple comparison instance
+     * Finds a flag by a simple comparison instance.
+     * Flags from getFlags() or ParsedArguments.getFlags() are a {@link FlagList}, which finds the flag without searching through every one.
      * @param simple The instance for comparison
      * @param arguments Arguments to search through
      * @return The found CommandFlag or null
      */
     public static CommandFlag findFromSimple(CommandFlag simple, List<CommandFlag> arguments) {
-        return arguments
-                .stream()
-                .filter(flag -> flag.equals(simple))
-                .collect(Collectors.toList())
-                .get(0);
+        if (arguments instanceof FlagList) return ((FlagList) arguments).find(simple);
+        for (CommandFlag flag : arguments) {
+            if (flag.equals(simple)) return flag;
+        }
+        return null;
+    }
+
+    /**
+     * Gets something that identifies a sender across commands, which unlike the sender itself is safe to keep after they log off
+     * @param sender The sender
+     * @return The UUID of an entity (e.g. a player), otherwise the name of the sender
+     */
+    public static Object getSenderKey(CommandSender sender) {
+        return sender instanceof Entity ? ((Entity) sender).getUniqueId() : sender.getName();
     }
 }